@@ -0,0 +1,79 @@
+package mate.academy.intro;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@State(Scope.Benchmark)
+public class CatalogState {
+    private static final int CATEGORIES = 50;
+    private static final int CATEGORIES_PER_BOOK = 2;
+    private static final int AUTHORS = 500;
+    private static final String[] EMBEDDED_DATABASE = {
+            "--spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;"
+                    + "DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.docker.compose.enabled=false",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.generate_statistics=false",
+            "--server.port=0",
+            "--logging.level.root=WARN"
+    };
+    @Param({"1000", "10000"})
+    private int catalogSize;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = SpringApplication.run(IntroApplication.class, EMBEDDED_DATABASE);
+        seedCatalog(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    private void seedCatalog(JdbcTemplate jdbcTemplate) {
+        List<Object[]> categories = new ArrayList<>();
+        for (long id = 1; id <= CATEGORIES; id++) {
+            categories.add(new Object[]{id, "Category " + id, "Description of category " + id});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO categories (id, name, description) VALUES (?, ?, ?)", categories);
+
+        List<Object[]> books = new ArrayList<>();
+        List<Object[]> bookCategories = new ArrayList<>();
+        for (long id = 1; id <= catalogSize; id++) {
+            books.add(new Object[]{id, "Title " + id, "Author " + id % AUTHORS,
+                    "978-" + id, BigDecimal.valueOf(100 + id % 400, 1),
+                    "Description of book " + id, "cover-" + id + ".jpg"});
+            for (int i = 0; i < CATEGORIES_PER_BOOK; i++) {
+                bookCategories.add(new Object[]{id, (id + i) % CATEGORIES + 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, isbn, price, "
+                + "description, cover_image) VALUES (?, ?, ?, ?, ?, ?, ?)", books);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO books_categories (book_id, category_id) VALUES (?, ?)",
+                bookCategories);
+    }
+}
@@ -0,0 +1,86 @@
+package mate.academy.intro.mapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import mate.academy.intro.CatalogState;
+import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.cart.ShoppingCartResponseDto;
+import mate.academy.intro.dto.order.OrderDto;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.CartItem;
+import mate.academy.intro.model.Order;
+import mate.academy.intro.model.OrderItem;
+import mate.academy.intro.model.ShoppingCart;
+import mate.academy.intro.model.User;
+import mate.academy.intro.repository.book.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int LINES_PER_ORDER = 20;
+    private BookMapper bookMapper;
+    private OrderMapper orderMapper;
+    private ShoppingCartMapper shoppingCartMapper;
+    private List<Book> books;
+    private Map<Long, Set<Long>> categoryIds;
+    private Order order;
+    private ShoppingCart shoppingCart;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        bookMapper = catalog.getBean(BookMapper.class);
+        orderMapper = catalog.getBean(OrderMapper.class);
+        shoppingCartMapper = catalog.getBean(ShoppingCartMapper.class);
+        BookRepository bookRepository = catalog.getBean(BookRepository.class);
+        books = bookRepository.findAll();
+        categoryIds = bookRepository.findCategoryIdsGroupedByBookId(
+                books.stream().map(Book::getId).toList());
+        User user = new User().setId(1L);
+        order = new Order().setId(1L).setUser(user).setOrderItems(new HashSet<>());
+        shoppingCart = new ShoppingCart().setId(1L).setUser(user);
+        for (Book book : books.subList(0, LINES_PER_ORDER)) {
+            order.getOrderItems().add(new OrderItem().setId(book.getId()).setOrder(order)
+                    .setBook(book).setQuantity(2).setPrice(book.getPrice()));
+            shoppingCart.getCartItems().add(new CartItem().setId(book.getId())
+                    .setShoppingCart(shoppingCart).setBook(book).setQuantity(2));
+        }
+    }
+
+    @Benchmark
+    public List<BookDto> mapCatalog() {
+        List<BookDto> dtos = new ArrayList<>(books.size());
+        for (Book book : books) {
+            dtos.add(bookMapper.toDto(book,
+                    categoryIds.getOrDefault(book.getId(), new HashSet<>())));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public OrderDto mapOrder() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public ShoppingCartResponseDto mapShoppingCart() {
+        return shoppingCartMapper.toDto(shoppingCart);
+    }
+}
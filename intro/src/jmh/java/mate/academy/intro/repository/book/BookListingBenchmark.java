@@ -0,0 +1,63 @@
+package mate.academy.intro.repository.book;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import mate.academy.intro.CatalogState;
+import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.mapper.BookMapper;
+import mate.academy.intro.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookListingBenchmark {
+    private static final Pageable PAGE = PageRequest.of(0, 100, Sort.by("id"));
+    private BookRepository bookRepository;
+    private BookMapper bookMapper;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        bookRepository = catalog.getBean(BookRepository.class);
+        bookMapper = catalog.getBean(BookMapper.class);
+    }
+
+    @Benchmark
+    public List<BookDto> loadEntitiesAndMap() {
+        List<Book> books = bookRepository.findAllByIdGreaterThan(0L, PAGE);
+        Map<Long, Set<Long>> categoryIds = bookRepository.findCategoryIdsGroupedByBookId(
+                books.stream().map(Book::getId).toList());
+        return books.stream()
+                .map(book -> bookMapper.toDto(book,
+                        categoryIds.getOrDefault(book.getId(), new HashSet<>())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BookDto> selectIntoDtos() {
+        List<BookDto> books = bookRepository.findAllAsDtos(PAGE);
+        Map<Long, Set<Long>> categoryIds = bookRepository.findCategoryIdsGroupedByBookId(
+                books.stream().map(BookDto::getId).toList());
+        books.forEach(book ->
+                book.setCategoriesId(categoryIds.getOrDefault(book.getId(), new HashSet<>())));
+        return books;
+    }
+}
@@ -0,0 +1,54 @@
+package mate.academy.intro.repository.book;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import mate.academy.intro.CatalogState;
+import mate.academy.intro.dto.book.BookSearchParameters;
+import mate.academy.intro.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookSpecificationBuilderBenchmark {
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private BookSpecificationBuilder builder;
+    private BookRepository bookRepository;
+    private BookSearchParameters parameters;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        builder = catalog.getBean(BookSpecificationBuilder.class);
+        bookRepository = catalog.getBean(BookRepository.class);
+        parameters = new BookSearchParameters()
+                .setTitles(new String[]{"Title 1", "Title 42", "Title 777"})
+                .setAuthors(new String[]{"Author 1", "Author 42", "Author 277"});
+    }
+
+    @Benchmark
+    public Specification<Book> build() {
+        return builder.build(parameters);
+    }
+
+    @Benchmark
+    public List<Book> buildAndSearch() {
+        Page<Book> page = bookRepository.findAll(builder.build(parameters), FIRST_PAGE);
+        return page.getContent();
+    }
+}
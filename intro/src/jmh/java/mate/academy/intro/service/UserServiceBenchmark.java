@@ -0,0 +1,54 @@
+package mate.academy.intro.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mate.academy.intro.CatalogState;
+import mate.academy.intro.dto.user.UserRegistrationRequestDto;
+import mate.academy.intro.dto.user.UserResponseDto;
+import mate.academy.intro.exception.RegistrationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+    private static final String PASSWORD = "123456789";
+    private final AtomicLong registrations = new AtomicLong();
+    private UserService userService;
+    private PasswordEncoder passwordEncoder;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        userService = catalog.getBean(UserService.class);
+        passwordEncoder = catalog.getBean(PasswordEncoder.class);
+    }
+
+    @Benchmark
+    public String encodePassword() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public UserResponseDto register() throws RegistrationException {
+        return userService.register(new UserRegistrationRequestDto()
+                .setEmail("reader" + registrations.incrementAndGet() + "@mail.com")
+                .setPassword(PASSWORD)
+                .setPasswordRepeat(PASSWORD)
+                .setFirstName("Bench")
+                .setLastName("Reader")
+                .setShippingAddress("Kyiv"));
+    }
+}
@@ -0,0 +1,111 @@
+package mate.academy.intro.cache;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.category.CategoryDto;
+import mate.academy.intro.exception.InvalidRequestException;
+import mate.academy.intro.mapper.CategoryMapper;
+import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.category.CategoryRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class CategorySnapshot {
+    private static final Map<String, Comparator<CategoryDto>> SORTABLE_PROPERTIES = Map.of(
+            "id", Comparator.comparing(CategoryDto::getId),
+            "name", Comparator.comparing(CategoryDto::getName),
+            "description", Comparator.comparing(CategoryDto::getDescription,
+                    Comparator.nullsFirst(Comparator.naturalOrder())),
+            "bookCount", Comparator.comparing(CategoryDto::getBookCount));
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private volatile Map<Long, CategoryDto> categories = Map.of();
+
+    @PostConstruct
+    public synchronized void refresh() {
+        Map<Long, CategoryDto> loaded = new LinkedHashMap<>();
+        for (Category category : categoryRepository.findAll(Sort.by("id"))) {
+            loaded.put(category.getId(), categoryMapper.toDto(category));
+        }
+        categories = Collections.unmodifiableMap(loaded);
+    }
+
+    public void refreshAfterCommit() {
+        AfterCommit.run(this::refresh);
+    }
+
+    public void refreshAfterCommit(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            AfterCommit.run(() -> refresh(ids));
+        }
+    }
+
+    public Optional<CategoryDto> findById(Long id) {
+        return Optional.ofNullable(categories.get(id))
+                .map(CategorySnapshot::copy);
+    }
+
+    public List<CategoryDto> findAll() {
+        return categories.values().stream()
+                .map(CategorySnapshot::copy)
+                .toList();
+    }
+
+    public List<CategoryDto> findAll(Pageable pageable) {
+        Stream<CategoryDto> page = categories.values().stream();
+        if (pageable.getSort().isSorted()) {
+            page = page.sorted(toComparator(pageable.getSort()));
+        }
+        if (pageable.isPaged()) {
+            page = page.skip(pageable.getOffset())
+                    .limit(pageable.getPageSize());
+        }
+        return page.map(CategorySnapshot::copy)
+                .toList();
+    }
+
+    private Comparator<CategoryDto> toComparator(Sort sort) {
+        Comparator<CategoryDto> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<CategoryDto> byProperty = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (byProperty == null) {
+                throw new InvalidRequestException("Can't sort categories by "
+                        + order.getProperty());
+            }
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        return comparator;
+    }
+
+    private synchronized void refresh(Collection<Long> ids) {
+        Map<Long, CategoryDto> updated = new LinkedHashMap<>(categories);
+        for (Category category : categoryRepository.findAllById(ids)) {
+            updated.computeIfPresent(category.getId(),
+                    (key, cached) -> categoryMapper.toDto(category));
+        }
+        categories = Collections.unmodifiableMap(updated);
+    }
+
+    private static CategoryDto copy(CategoryDto category) {
+        return new CategoryDto()
+                .setId(category.getId())
+                .setName(category.getName())
+                .setDescription(category.getDescription())
+                .setVersion(category.getVersion())
+                .setBookCount(category.getBookCount());
+    }
+}
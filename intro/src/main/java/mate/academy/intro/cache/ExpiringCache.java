@@ -0,0 +1,142 @@
+package mate.academy.intro.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+    private final long ttl;
+    private final Map<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long invalidations;
+
+    public ExpiringCache(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long invalidationsBeforeLoad;
+        synchronized (entries) {
+            invalidationsBeforeLoad = invalidations;
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        synchronized (entries) {
+            if (invalidations == invalidationsBeforeLoad) {
+                entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttl));
+            }
+        }
+        return value;
+    }
+
+    public V peek(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null && entry.expiresAt > System.currentTimeMillis()
+                    ? entry.value
+                    : null;
+        }
+    }
+
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        Set<K> missingKeys = new LinkedHashSet<>();
+        long invalidationsBeforeLoad;
+        synchronized (entries) {
+            invalidationsBeforeLoad = invalidations;
+            long now = System.currentTimeMillis();
+            for (K key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.expiresAt > now) {
+                    hits.increment();
+                    values.put(key, entry.value);
+                    continue;
+                }
+                if (entry != null) {
+                    entries.remove(key);
+                    evictions.increment();
+                }
+                missingKeys.add(key);
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return values;
+        }
+        misses.add(missingKeys.size());
+        Map<K, V> loaded = loader.apply(missingKeys);
+        synchronized (entries) {
+            if (invalidations == invalidationsBeforeLoad) {
+                long expiresAt = System.currentTimeMillis() + ttl;
+                loaded.forEach((key, value) -> entries.put(key, new Entry<>(value, expiresAt)));
+            }
+        }
+        values.putAll(loaded);
+        return values;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            invalidations++;
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> condition) {
+        synchronized (entries) {
+            entries.entrySet().removeIf(entry ->
+                    condition.test(entry.getKey(), entry.getValue().value()));
+            invalidations++;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    public CacheStatsDto getStats() {
+        synchronized (entries) {
+            return new CacheStatsDto()
+                    .setSize(entries.size())
+                    .setMaxSize(maxSize)
+                    .setHits(hits.sum())
+                    .setMisses(misses.sum())
+                    .setEvictions(evictions.sum());
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,52 @@
+package mate.academy.intro.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+public class IdempotencyKeyStore<V> {
+    private final Map<String, CompletableFuture<V>> results;
+
+    public IdempotencyKeyStore(int maxSize) {
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public V execute(String key, Supplier<V> action) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        CompletableFuture<V> previous;
+        synchronized (results) {
+            previous = results.putIfAbsent(key, result);
+        }
+        if (previous != null) {
+            try {
+                return previous.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            V value = action.get();
+            result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            synchronized (results) {
+                results.remove(key, result);
+            }
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package mate.academy.intro.cache;
+
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import mate.academy.intro.dto.cart.CartItemDto;
+import mate.academy.intro.repository.cartitem.CartItemBatchRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class WriteBehindCartStore {
+    private final CartItemBatchRepository repository;
+    private final boolean enabled;
+    private final int maxCartsPerStripe;
+    private final Stripe[] stripes;
+
+    public WriteBehindCartStore(CartItemBatchRepository repository, boolean enabled,
+                                int maxCarts, int stripeCount) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.maxCartsPerStripe = Math.max(1, (maxCarts + stripeCount - 1) / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CartItemDto> setQuantity(Long userId, Long cartItemId, int quantity) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Map<Long, CartItemDto> cart = stripe.carts.get(userId);
+            CartItemDto item = cart == null ? null : cart.get(cartItemId);
+            if (item == null) {
+                CartItemDto writing = stripe.writing.getOrDefault(userId, Map.of())
+                        .get(cartItemId);
+                if (writing == null) {
+                    return Optional.empty();
+                }
+                item = copy(writing);
+                stripe.carts.computeIfAbsent(userId, id -> new HashMap<>())
+                        .put(cartItemId, item);
+            }
+            item.setQuantity(quantity);
+            return Optional.of(copy(item));
+        }
+    }
+
+    public CartItemDto put(Long userId, CartItemDto item) {
+        Stripe stripe = stripeOf(userId);
+        boolean full;
+        synchronized (stripe) {
+            stripe.carts.computeIfAbsent(userId, id -> new HashMap<>())
+                    .put(item.getId(), copy(item));
+            full = stripe.carts.size() > maxCartsPerStripe;
+        }
+        if (full) {
+            try {
+                writeBehind(stripe, this::detachEldest);
+            } catch (DataAccessException e) {
+                // the evicted cart is pending again and goes out with the next flush
+            }
+        }
+        return copy(item);
+    }
+
+    public void remove(Long userId, Long cartItemId) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Map<Long, CartItemDto> cart = stripe.carts.get(userId);
+            if (cart != null) {
+                cart.remove(cartItemId);
+                if (cart.isEmpty()) {
+                    stripe.carts.remove(userId);
+                }
+            }
+            Map<Long, CartItemDto> writing = stripe.writing.get(userId);
+            if (writing != null) {
+                writing.remove(cartItemId);
+            }
+        }
+    }
+
+    public Map<Long, Integer> getPendingQuantities(Long userId) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            Map<Long, Integer> quantities = new HashMap<>();
+            stripe.writing.getOrDefault(userId, Map.of()).values()
+                    .forEach(item -> quantities.put(item.getId(), item.getQuantity()));
+            stripe.carts.getOrDefault(userId, Map.of()).values()
+                    .forEach(item -> quantities.put(item.getId(), item.getQuantity()));
+            return quantities;
+        }
+    }
+
+    public void flush(Long userId) {
+        writeBehind(stripeOf(userId), stripe -> {
+            Map<Long, CartItemDto> cart = stripe.carts.remove(userId);
+            return cart == null ? new HashMap<>() : new HashMap<>(Map.of(userId, cart));
+        });
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval}")
+    public void flushAll() {
+        for (Stripe stripe : stripes) {
+            writeBehind(stripe, this::detachAll);
+        }
+    }
+
+    private void writeBehind(Stripe stripe,
+                             Function<Stripe, Map<Long, Map<Long, CartItemDto>>> detach) {
+        stripe.writeLock.lock();
+        try {
+            Map<Long, Integer> quantities = new HashMap<>();
+            synchronized (stripe) {
+                stripe.writing = detach.apply(stripe);
+                stripe.writing.values().forEach(cart -> cart.values()
+                        .forEach(item -> quantities.put(item.getId(), item.getQuantity())));
+            }
+            boolean written = false;
+            try {
+                if (!quantities.isEmpty()) {
+                    repository.updateQuantities(quantities);
+                }
+                written = true;
+            } finally {
+                synchronized (stripe) {
+                    if (!written) {
+                        stripe.writing.forEach((userId, cart) -> {
+                            Map<Long, CartItemDto> pending =
+                                    stripe.carts.computeIfAbsent(userId, id -> new HashMap<>());
+                            cart.forEach(pending::putIfAbsent);
+                        });
+                    }
+                    stripe.writing = new HashMap<>();
+                }
+            }
+        } finally {
+            stripe.writeLock.unlock();
+        }
+    }
+
+    private Map<Long, Map<Long, CartItemDto>> detachEldest(Stripe stripe) {
+        Map<Long, Map<Long, CartItemDto>> evicted = new HashMap<>();
+        Iterator<Map.Entry<Long, Map<Long, CartItemDto>>> eldest =
+                stripe.carts.entrySet().iterator();
+        while (stripe.carts.size() > maxCartsPerStripe) {
+            Map.Entry<Long, Map<Long, CartItemDto>> cart = eldest.next();
+            evicted.put(cart.getKey(), cart.getValue());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private Map<Long, Map<Long, CartItemDto>> detachAll(Stripe stripe) {
+        Map<Long, Map<Long, CartItemDto>> detached = new HashMap<>(stripe.carts);
+        stripe.carts.clear();
+        return detached;
+    }
+
+    private Stripe stripeOf(Long userId) {
+        return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+    }
+
+    private static CartItemDto copy(CartItemDto item) {
+        return new CartItemDto(item.getId(), item.getBookId(), item.getBookTitle(),
+                item.getQuantity(), item.getPrice());
+    }
+
+    private static class Stripe {
+        private final Map<Long, Map<Long, CartItemDto>> carts =
+                new LinkedHashMap<>(16, 0.75f, true);
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private Map<Long, Map<Long, CartItemDto>> writing = new HashMap<>();
+    }
+}
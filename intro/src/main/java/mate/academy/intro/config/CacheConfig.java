@@ -0,0 +1,38 @@
+package mate.academy.intro.config;
+
+import mate.academy.intro.cache.ExpiringCache;
+import mate.academy.intro.cache.IdempotencyKeyStore;
+import mate.academy.intro.cache.WriteBehindCartStore;
+import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.order.OrderDto;
+import mate.academy.intro.repository.cartitem.CartItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+    private static final int CART_STORE_STRIPES = 16;
+
+    @Bean
+    public ExpiringCache<Long, BookDto> bookCache(
+            @Value("${cache.books.max-size}") int maxSize,
+            @Value("${cache.books.ttl}") long ttl) {
+        return new ExpiringCache<>(maxSize, ttl);
+    }
+
+    @Bean
+    public IdempotencyKeyStore<OrderDto> orderIdempotencyKeys(
+            @Value("${cache.order-idempotency-keys.max-size}") int maxSize) {
+        return new IdempotencyKeyStore<>(maxSize);
+    }
+
+    @Bean
+    public WriteBehindCartStore cartStore(
+            CartItemRepository cartItemRepository,
+            @Value("${cart.write-behind.enabled}") boolean enabled,
+            @Value("${cart.write-behind.max-carts}") int maxCarts) {
+        return new WriteBehindCartStore(cartItemRepository, enabled, maxCarts,
+                CART_STORE_STRIPES);
+    }
+}
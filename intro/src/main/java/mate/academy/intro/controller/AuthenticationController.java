@@ -4,13 +4,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.cache.CacheStatsDto;
 import mate.academy.intro.dto.user.UserLoginRequestDto;
 import mate.academy.intro.dto.user.UserLoginResponseDto;
 import mate.academy.intro.dto.user.UserRegistrationRequestDto;
 import mate.academy.intro.dto.user.UserResponseDto;
 import mate.academy.intro.exception.RegistrationException;
 import mate.academy.intro.security.AuthenticationService;
+import mate.academy.intro.security.PrincipalCache;
 import mate.academy.intro.service.UserService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -23,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthenticationController {
     private final UserService userService;
     private final AuthenticationService authenticationService;
+    private final PrincipalCache principalCache;
 
     @Operation(summary = "login user")
     @PostMapping("/login")
@@ -36,4 +41,13 @@ public class AuthenticationController {
             throws RegistrationException {
         return userService.register(request);
     }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get principal cache statistics",
+            description = "Get size and hit counters of the authenticated principal cache, "
+                    + "every hit is a user lookup saved")
+    public CacheStatsDto getPrincipalCacheStats() {
+        return principalCache.getStats();
+    }
 }
@@ -1,16 +1,36 @@
 package mate.academy.intro.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.dto.book.BookCursorPageDto;
 import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.book.BookExportDto;
+import mate.academy.intro.dto.book.BookFacetedSearchDto;
+import mate.academy.intro.dto.book.BookImportResultDto;
+import mate.academy.intro.dto.book.BookLookupDto;
+import mate.academy.intro.dto.book.BookSearchParameters;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+import mate.academy.intro.service.BookImportService;
 import mate.academy.intro.service.BookService;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,25 +43,88 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @Tag(name = "Book management", description = "Endpoints for managing books")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/books")
 public class BookController {
+    private static final int NEW_LINE = '\n';
+    private static final String TEXT_CSV_VALUE = "text/csv";
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
 
     @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
     @GetMapping
-    @Operation(summary = "Get all books", description = "Get a list of all available books")
-    public List<BookDto> getAll(Authentication authentication, Pageable pageable) {
+    @Operation(summary = "Get all books", description = "Get a list of all available books. "
+            + "Responds with 304 if the page matches the If-None-Match ETag")
+    public List<BookDto> getAll(Authentication authentication, Pageable pageable,
+                                WebRequest request) {
+        if (request.checkNotModified(bookService.getETag(pageable))) {
+            return null;
+        }
         return bookService.findAll(pageable);
     }
 
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get books by IDs",
+            description = "Get up to 200 books by IDs in the requested order, "
+                    + "IDs of books that don't exist are listed in missingIds")
+    public BookLookupDto getAllById(Authentication authentication,
+                                    @RequestParam List<Long> ids) {
+        return bookService.findAllById(ids);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all books by cursor",
+            description = "Get a page of books after the given cursor, without counting the "
+                    + "whole catalog. Pass nextCursor from the response to get the next page")
+    public BookCursorPageDto getAllByCursor(Authentication authentication,
+                                            @RequestParam(required = false) String cursor,
+                                            Pageable pageable) {
+        return bookService.findAll(cursor, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all books",
+            description = "Stream the whole catalog as newline-delimited JSON, one book per "
+                    + "line. Pass modifiedSince to get only books changed after that moment, "
+                    + "books deleted since then come with only id and deleted: true")
+    public void exportAll(Authentication authentication,
+                          @RequestParam(required = false)
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                          LocalDateTime modifiedSince,
+                          HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(BookExportDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        OutputStream output = response.getOutputStream();
+        bookService.exportAll(modifiedSince, book -> {
+            try {
+                writer.writeValue(output, book);
+                output.write(NEW_LINE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't write books export", e);
+            }
+        });
+        output.flush();
+    }
+
     @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
     @GetMapping("/{id}")
-    @Operation(summary = "Get a book by ID", description = "Get a book by ID, if present")
-    public BookDto getBookById(Authentication authentication, @PathVariable Long id) {
+    @Operation(summary = "Get a book by ID", description = "Get a book by ID, if present. "
+            + "Responds with 304 if the book matches the If-None-Match ETag")
+    public BookDto getBookById(Authentication authentication, @PathVariable Long id,
+                               WebRequest request) {
+        if (request.checkNotModified(bookService.getETag(id))) {
+            return null;
+        }
         return bookService.findById(id);
     }
 
@@ -53,6 +136,26 @@ public class BookController {
         return bookService.save(bookDto);
     }
 
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    @Operation(summary = "Import books from CSV",
+            description = "Create or update books by isbn from CSV with a header row of "
+                    + "title, author, isbn, price, description, coverImage and categories "
+                    + "columns, category ids separated by ';'. Returns per-line failures")
+    public BookImportResultDto importCsv(Authentication authentication, InputStream input) {
+        return bookImportService.importCsv(input);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import books from JSON lines",
+            description = "Create or update books by isbn from newline-delimited JSON, "
+                    + "one book per line. Returns per-line failures")
+    public BookImportResultDto importJsonLines(Authentication authentication,
+                                               InputStream input) {
+        return bookImportService.importJsonLines(input);
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{id}")
@@ -84,4 +187,35 @@ public class BookController {
         List<String> authors = author != null ? author : Collections.emptyList();
         return bookService.search(titles, authors);
     }
+
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "/search", params = "q")
+    @Operation(summary = "Full-text search of books",
+            description = "Search books by words or word prefixes from title, author, "
+                    + "description and category names, most relevant first")
+    public List<BookDto> searchRanked(Authentication authentication,
+                                      @RequestParam String q,
+                                      Pageable pageable) {
+        return bookService.search(q, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "/search", params = "facets")
+    @Operation(summary = "Search books with facet counts",
+            description = "Filter books by title, author, category id, isbn prefix (each "
+                    + "repeatable) and minPrice/maxPrice, with book counts per category and "
+                    + "per price range")
+    public BookFacetedSearchDto searchWithFacets(Authentication authentication,
+                                                 BookSearchParameters parameters,
+                                                 Pageable pageable) {
+        return bookService.search(parameters, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get book cache statistics",
+            description = "Get size, hit, miss and eviction counters of the book by id cache")
+    public CacheStatsDto getCacheStats(Authentication authentication) {
+        return bookService.getCacheStats();
+    }
 }
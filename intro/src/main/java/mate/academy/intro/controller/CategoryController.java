@@ -5,6 +5,7 @@ import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.category.CategoryBooksCursorPageDto;
 import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.service.BookService;
 import mate.academy.intro.service.CategoryService;
@@ -18,7 +19,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RequiredArgsConstructor
 @RestController
@@ -45,8 +48,13 @@ public class CategoryController {
 
     @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
     @GetMapping("/{id}")
-    @Operation(summary = "Get category by id", description = "Get category by id")
-    public CategoryDto getCategoryById(Authentication authentication, @PathVariable Long id) {
+    @Operation(summary = "Get category by id", description = "Get category by id. "
+            + "Responds with 304 if the category matches the If-None-Match ETag")
+    public CategoryDto getCategoryById(Authentication authentication, @PathVariable Long id,
+                                       WebRequest request) {
+        if (request.checkNotModified(categoryService.getETag(id))) {
+            return null;
+        }
         return categoryService.getById(id);
     }
 
@@ -71,9 +79,23 @@ public class CategoryController {
     @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
     @GetMapping("/{id}/books")
     @Operation(summary = "Get all books category id",
-            description = "Get all books category id")
+            description = "Get a page of books with category id, sortable by book fields. "
+                    + "Total count isn't calculated")
     public List<BookDtoWithoutCategoriesIds> getBooksByCategoryId(
-            Authentication authentication, @PathVariable Long id) {
-        return bookService.findAllByCategoryId(id);
+            Authentication authentication, @PathVariable Long id, Pageable pageable) {
+        return bookService.findAllByCategoryId(id, pageable);
+    }
+
+    @PreAuthorize("hasRole('ROLE_USER') or hasRole('ROLE_ADMIN')")
+    @GetMapping("/{id}/books/cursor")
+    @Operation(summary = "Get books by category id by cursor",
+            description = "Get a page of books from the category after the given cursor. "
+                    + "Pass nextCursor from the response to get the next page")
+    public CategoryBooksCursorPageDto getBooksByCategoryIdByCursor(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            Pageable pageable) {
+        return bookService.findAllByCategoryId(id, cursor, pageable);
     }
 }
@@ -9,7 +9,7 @@ import mate.academy.intro.dto.order.AddressRequestDto;
 import mate.academy.intro.dto.order.OrderDto;
 import mate.academy.intro.dto.order.OrderItemDto;
 import mate.academy.intro.dto.order.StatusRequestDto;
-import mate.academy.intro.model.User;
+import mate.academy.intro.security.UserPrincipal;
 import mate.academy.intro.service.OrderService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -31,11 +32,15 @@ public class OrderController {
     @PreAuthorize("hasRole('ROLE_USER')")
     @PostMapping
     @Operation(summary = "Create order",
-            description = "Create order, based on items in shopping cart")
+            description = "Create order, based on items in shopping cart. Repeated requests "
+                    + "with the same Idempotency-Key return the original order")
     public OrderDto createOrder(Authentication authentication,
+                                @RequestHeader(name = "Idempotency-Key", required = false)
+                                String idempotencyKey,
                                 @RequestBody @Valid AddressRequestDto requestDto) {
-        User user = (User) authentication.getPrincipal();
-        return orderService.createOrder(user, requestDto.getShippingAddress());
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+        return orderService.createOrder(user.getId(), requestDto.getShippingAddress(),
+                idempotencyKey);
     }
 
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -43,8 +48,8 @@ public class OrderController {
     @Operation(summary = "Get orders history",
             description = "get all orders for current user")
     public List<OrderDto> getAllOrders(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        return orderService.findAllOrders(user);
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+        return orderService.findAllOrders(user.getId());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -64,7 +69,7 @@ public class OrderController {
     public List<OrderItemDto> getAllItemsFromOrder(Authentication authentication,
                                                    @PathVariable Long orderId
     ) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         return orderService.getItemsListFromOrder(user, orderId);
     }
 
@@ -76,7 +81,7 @@ public class OrderController {
                                          @PathVariable Long orderId,
                                          @PathVariable Long itemId
     ) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         return orderService.getItemFromOrder(user, orderId, itemId);
     }
 }
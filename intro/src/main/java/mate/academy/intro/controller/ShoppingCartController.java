@@ -8,7 +8,7 @@ import mate.academy.intro.dto.cart.CartItemAddRequestDto;
 import mate.academy.intro.dto.cart.CartItemDto;
 import mate.academy.intro.dto.cart.CartItemQuantityUpdateRequestDto;
 import mate.academy.intro.dto.cart.ShoppingCartResponseDto;
-import mate.academy.intro.model.User;
+import mate.academy.intro.security.UserPrincipal;
 import mate.academy.intro.service.CartService;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -37,7 +37,7 @@ public class ShoppingCartController {
             description = "Get a list of all items from user's shopping cart")
     public ShoppingCartResponseDto getShoppingCartForUser(
             Authentication authentication, Pageable pageable) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         return cartService.getByUserId(user.getId());
     }
 
@@ -47,7 +47,7 @@ public class ShoppingCartController {
             description = "Add book to user's shopping cart")
     public CartItemDto addBookToCart(Authentication authentication,
                                      @RequestBody @Valid CartItemAddRequestDto requestDto) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         return cartService.addBookToCart(user.getId(), requestDto);
     }
 
@@ -59,7 +59,7 @@ public class ShoppingCartController {
             Authentication authentication,
             @PathVariable Long cartItemId,
             @RequestBody @Valid CartItemQuantityUpdateRequestDto requestDto) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         return cartService.updateBookQuantity(user.getId(), cartItemId, requestDto.getQuantity());
     }
 
@@ -69,7 +69,7 @@ public class ShoppingCartController {
     @Operation(summary = "Delete book",
             description = "Delete book from YOUR shopping cart")
     public void deleteItemFromCart(Authentication authentication, @PathVariable Long cartItemId) {
-        User user = (User) authentication.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         cartService.deleteItem(user.getId(), cartItemId);
     }
 }
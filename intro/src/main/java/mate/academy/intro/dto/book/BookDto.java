@@ -1,11 +1,14 @@
 package mate.academy.intro.dto.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.util.Set;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
 @Data
+@NoArgsConstructor
 @Accessors(chain = true)
 public class BookDto {
     private Long id;
@@ -16,4 +19,18 @@ public class BookDto {
     private String description;
     private String coverImage;
     private Set<Long> categoriesId;
+    @JsonIgnore
+    private Long version;
+
+    public BookDto(Long id, String title, String author, String isbn, BigDecimal price,
+                   String description, String coverImage, Long version) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.price = price;
+        this.description = description;
+        this.coverImage = coverImage;
+        this.version = version;
+    }
 }
@@ -0,0 +1,23 @@
+package mate.academy.intro.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.util.Set;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookExportDto {
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private BigDecimal price;
+    private String description;
+    private String coverImage;
+    private Set<Long> categoriesId;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean deleted;
+}
@@ -0,0 +1,13 @@
+package mate.academy.intro.dto.book;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BookFacetedSearchDto {
+    private List<BookDto> books;
+    private List<CategoryFacetDto> categories;
+    private List<PriceFacetDto> prices;
+}
@@ -0,0 +1,11 @@
+package mate.academy.intro.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BookImportErrorDto {
+    private long line;
+    private String message;
+}
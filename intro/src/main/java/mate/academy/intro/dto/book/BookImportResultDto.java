@@ -0,0 +1,15 @@
+package mate.academy.intro.dto.book;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BookImportResultDto {
+    private int inserted;
+    private int updated;
+    private int failed;
+    private List<BookImportErrorDto> errors = new ArrayList<>();
+}
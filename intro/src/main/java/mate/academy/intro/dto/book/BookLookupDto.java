@@ -0,0 +1,12 @@
+package mate.academy.intro.dto.book;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BookLookupDto {
+    private List<BookDto> books;
+    private List<Long> missingIds;
+}
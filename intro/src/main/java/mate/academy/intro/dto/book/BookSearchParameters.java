@@ -1,11 +1,42 @@
 package mate.academy.intro.dto.book;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.Data;
 import lombok.experimental.Accessors;
+import mate.academy.intro.repository.SearchParameters;
 
 @Data
 @Accessors(chain = true)
-public class BookSearchParameters {
-    private String[] titles;
-    private String[] authors;
+public class BookSearchParameters implements SearchParameters {
+    private String[] title;
+    private String[] author;
+    private String[] category;
+    private String[] isbn;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    @Override
+    public Map<String, String[]> toSpecificationParams() {
+        Map<String, String[]> params = new LinkedHashMap<>();
+        putIfPresent(params, "title", title);
+        putIfPresent(params, "author", author);
+        putIfPresent(params, "categories", category);
+        putIfPresent(params, "isbn", isbn);
+        if (minPrice != null || maxPrice != null) {
+            params.put("price", new String[]{toParam(minPrice), toParam(maxPrice)});
+        }
+        return params;
+    }
+
+    private static void putIfPresent(Map<String, String[]> params, String key, String[] values) {
+        if (values != null && values.length > 0) {
+            params.put(key, values);
+        }
+    }
+
+    private static String toParam(BigDecimal price) {
+        return price == null ? "" : price.toPlainString();
+    }
 }
@@ -0,0 +1,12 @@
+package mate.academy.intro.dto.book;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CategoryFacetDto {
+    private Long id;
+    private String name;
+    private long count;
+}
@@ -0,0 +1,13 @@
+package mate.academy.intro.dto.book;
+
+import java.math.BigDecimal;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class PriceFacetDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
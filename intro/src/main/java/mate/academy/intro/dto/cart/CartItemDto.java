@@ -1,13 +1,19 @@
 package mate.academy.intro.dto.cart;
 
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Accessors(chain = true)
 public class CartItemDto {
     private Long id;
     private Long bookId;
     private String bookTitle;
     private int quantity;
+    private BigDecimal price;
 }
@@ -1,5 +1,6 @@
 package mate.academy.intro.dto.cart;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.Data;
@@ -11,4 +12,5 @@ public class ShoppingCartResponseDto {
     private Long id;
     private Long userId;
     private Set<CartItemDto> cartItems = new HashSet<>();
+    private BigDecimal total = BigDecimal.ZERO;
 }
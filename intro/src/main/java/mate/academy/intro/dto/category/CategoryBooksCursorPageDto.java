@@ -0,0 +1,13 @@
+package mate.academy.intro.dto.category;
+
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+
+@Data
+@Accessors(chain = true)
+public class CategoryBooksCursorPageDto {
+    private List<BookDtoWithoutCategoriesIds> books;
+    private String nextCursor;
+}
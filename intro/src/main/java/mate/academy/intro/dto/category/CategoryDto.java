@@ -1,5 +1,6 @@
 package mate.academy.intro.dto.category;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -9,4 +10,7 @@ public class CategoryDto {
     private Long id;
     private String name;
     private String description;
+    @JsonIgnore
+    private Long version;
+    private Long bookCount;
 }
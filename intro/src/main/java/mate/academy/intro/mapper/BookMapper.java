@@ -1,30 +1,36 @@
 package mate.academy.intro.mapper;
 
+import java.util.Set;
 import java.util.stream.Collectors;
 import mate.academy.intro.config.MapperConfig;
 import mate.academy.intro.dto.book.BookDto;
 import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.book.BookExportDto;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.Category;
-import org.mapstruct.AfterMapping;
+import mate.academy.intro.repository.book.BookExportRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.MappingTarget;
 
 @Mapper(config = MapperConfig.class)
 public interface BookMapper {
+    @Mapping(target = "categoriesId", source = "categories")
     BookDto toDto(Book book);
 
+    BookDto toDto(Book book, Set<Long> categoriesId);
+
+    @Mapping(target = "categoriesId", ignore = true)
+    BookExportDto toExportDto(BookExportRow row);
+
     @Mapping(target = "categories", ignore = true)
     Book toModel(CreateBookRequestDto requestDto);
 
     BookDtoWithoutCategoriesIds toDtoWithoutCategories(Book book);
 
-    @AfterMapping
-    default void setCategoryIds(@MappingTarget BookDto bookDto, Book book) {
-        bookDto.setCategoriesId(book.getCategories().stream()
+    default Set<Long> toCategoryIds(Set<Category> categories) {
+        return categories.stream()
                 .map(Category::getId)
-                .collect(Collectors.toSet()));
+                .collect(Collectors.toSet());
     }
 }
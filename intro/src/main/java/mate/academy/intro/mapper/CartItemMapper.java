@@ -11,6 +11,7 @@ import org.mapstruct.Mapping;
 public interface CartItemMapper {
     @Mapping(source = "book.id", target = "bookId")
     @Mapping(source = "book.title", target = "bookTitle")
+    @Mapping(source = "book.price", target = "price")
     CartItemDto toDto(CartItem cartItem);
 
     CartItem toModel(CartItemAddRequestDto requestDto);
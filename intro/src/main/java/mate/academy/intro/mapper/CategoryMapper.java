@@ -4,10 +4,12 @@ import mate.academy.intro.config.MapperConfig;
 import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.model.Category;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(config = MapperConfig.class)
 public interface CategoryMapper {
     CategoryDto toDto(Category category);
 
+    @Mapping(target = "bookCount", ignore = true)
     Category toEntity(CategoryDto categoryDto);
 }
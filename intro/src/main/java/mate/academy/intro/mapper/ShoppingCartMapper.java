@@ -10,5 +10,6 @@ import org.mapstruct.Mapping;
 public interface ShoppingCartMapper {
 
     @Mapping(source = "user.id", target = "userId")
+    @Mapping(target = "total", ignore = true)
     ShoppingCartResponseDto toDto(ShoppingCart shoppingCart);
 }
@@ -8,6 +8,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import org.hibernate.annotations.SQLDelete;
@@ -17,7 +18,8 @@ import org.hibernate.annotations.Where;
 @Data
 @SQLDelete(sql = "UPDATE cart_items SET is_deleted = true WHERE id=?")
 @Where(clause = "is_deleted=false")
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(
+        columnNames = {"shopping_cart_id", "book_id"}))
 @Accessors(chain = true)
 public class CartItem {
     @Id
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import org.hibernate.annotations.SQLDelete;
@@ -13,7 +14,8 @@ import org.hibernate.annotations.Where;
 
 @Entity
 @Data
-@SQLDelete(sql = "UPDATE categories SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE categories SET is_deleted = true, version = version + 1 "
+        + "WHERE id=? AND version=?")
 @Where(clause = "is_deleted=false")
 @Table(name = "categories")
 @Accessors(chain = true)
@@ -26,4 +28,9 @@ public class Category {
     private String description;
     @Column(nullable = false, name = "is_deleted")
     private boolean isDeleted = false;
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    @Column(nullable = false, name = "book_count", insertable = false, updatable = false)
+    private long bookCount;
 }
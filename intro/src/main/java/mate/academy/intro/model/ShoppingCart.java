@@ -10,6 +10,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.Data;
@@ -21,7 +22,8 @@ import org.hibernate.annotations.Where;
 
 @Entity
 @Data
-@SQLDelete(sql = "UPDATE shopping_carts SET is_deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE shopping_carts SET is_deleted = true, version = version + 1 "
+        + "WHERE id=? AND version=?")
 @Where(clause = "is_deleted=false")
 @Table(name = "shopping_carts")
 @Accessors(chain = true)
@@ -38,4 +40,7 @@ public class ShoppingCart {
     private Set<CartItem> cartItems = new HashSet<>();
     @Column(name = "is_deleted", nullable = false)
     private boolean isDeleted;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
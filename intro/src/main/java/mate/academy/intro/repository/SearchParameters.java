@@ -0,0 +1,7 @@
+package mate.academy.intro.repository;
+
+import java.util.Map;
+
+public interface SearchParameters {
+    Map<String, String[]> toSpecificationParams();
+}
@@ -1,8 +1,7 @@
 package mate.academy.intro.repository;
 
-import mate.academy.intro.dto.book.BookSearchParameters;
 import org.springframework.data.jpa.domain.Specification;
 
 public interface SpecificationBuilder<T> {
-    Specification<T> build(BookSearchParameters parameters);
+    Specification<T> build(SearchParameters parameters);
 }
@@ -0,0 +1,8 @@
+package mate.academy.intro.repository.book;
+
+import java.util.List;
+import mate.academy.intro.model.Book;
+
+public interface BookBatchRepository {
+    int upsertAllByIsbn(List<Book> books);
+}
@@ -0,0 +1,89 @@
+package mate.academy.intro.repository.book;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Category;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+public class BookBatchRepositoryImpl implements BookBatchRepository {
+    private static final String FIND_IDS_BY_ISBNS =
+            "SELECT id, isbn FROM books WHERE isbn IN (:isbns)";
+    private static final String INSERT_BOOK = "INSERT INTO books "
+            + "(title, author, isbn, price, description, cover_image) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BOOK = "UPDATE books SET title = ?, author = ?, "
+            + "price = ?, description = ?, cover_image = ?, is_deleted = false, "
+            + "version = version + 1, updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?";
+    private static final String DELETE_BOOK_CATEGORIES =
+            "DELETE FROM books_categories WHERE book_id IN (:bookIds)";
+    private static final String INSERT_BOOK_CATEGORY =
+            "INSERT INTO books_categories (book_id, category_id) VALUES (?, ?)";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int upsertAllByIsbn(List<Book> books) {
+        if (books.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> existingIds = findIdsByIsbns(books.stream().map(Book::getIsbn).toList());
+        List<Book> newBooks = books.stream()
+                .filter(book -> !existingIds.containsKey(book.getIsbn()))
+                .toList();
+        List<Book> existingBooks = books.stream()
+                .filter(book -> existingIds.containsKey(book.getIsbn()))
+                .map(book -> book.setId(existingIds.get(book.getIsbn())))
+                .toList();
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_BOOK, existingBooks,
+                existingBooks.size(), (statement, book) -> {
+                    statement.setString(1, book.getTitle());
+                    statement.setString(2, book.getAuthor());
+                    statement.setBigDecimal(3, book.getPrice());
+                    statement.setString(4, book.getDescription());
+                    statement.setString(5, book.getCoverImage());
+                    statement.setLong(6, book.getId());
+                });
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_BOOK, newBooks,
+                newBooks.size(), (statement, book) -> {
+                    statement.setString(1, book.getTitle());
+                    statement.setString(2, book.getAuthor());
+                    statement.setString(3, book.getIsbn());
+                    statement.setBigDecimal(4, book.getPrice());
+                    statement.setString(5, book.getDescription());
+                    statement.setString(6, book.getCoverImage());
+                });
+        if (!newBooks.isEmpty()) {
+            Map<String, Long> newIds = findIdsByIsbns(newBooks.stream()
+                    .map(Book::getIsbn)
+                    .toList());
+            newBooks.forEach(book -> book.setId(newIds.get(book.getIsbn())));
+        }
+        replaceCategories(books);
+        return newBooks.size();
+    }
+
+    private Map<String, Long> findIdsByIsbns(Collection<String> isbns) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(FIND_IDS_BY_ISBNS, Map.of("isbns", isbns),
+                resultSet -> {
+                    ids.put(resultSet.getString("isbn"), resultSet.getLong("id"));
+                });
+        return ids;
+    }
+
+    private void replaceCategories(List<Book> books) {
+        jdbcTemplate.update(DELETE_BOOK_CATEGORIES,
+                Map.of("bookIds", books.stream().map(Book::getId).toList()));
+        List<Object[]> links = books.stream()
+                .flatMap(book -> book.getCategories().stream()
+                        .map(Category::getId)
+                        .map(categoryId -> new Object[] {book.getId(), categoryId}))
+                .toList();
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_BOOK_CATEGORY, links);
+    }
+}
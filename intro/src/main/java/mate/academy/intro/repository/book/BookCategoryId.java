@@ -0,0 +1,7 @@
+package mate.academy.intro.repository.book;
+
+public interface BookCategoryId {
+    Long getBookId();
+
+    Long getCategoryId();
+}
@@ -0,0 +1,91 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.exception.InvalidRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BookCursor {
+    private static final String ID = "id";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String ORDER_SEPARATOR = ",";
+    private static final String DIRECTION_SEPARATOR = ":";
+    private static final Map<String, Function<String, Object>> SORTABLE_PROPERTIES = Map.of(
+            ID, Long::valueOf,
+            "title", String::valueOf,
+            "author", String::valueOf,
+            "isbn", String::valueOf,
+            "price", BigDecimal::new);
+    private final Sort sort;
+    private final KeysetScrollPosition position;
+
+    public static BookCursor first(Sort requested) {
+        Sort sort = requested.isSorted() ? requested : Sort.by(ID);
+        for (Sort.Order order : sort) {
+            checkSortable(order.getProperty());
+        }
+        if (sort.getOrderFor(ID) == null) {
+            sort = sort.and(Sort.by(sort.iterator().next().getDirection(), ID));
+        }
+        return new BookCursor(sort, ScrollPosition.keyset());
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String[] lines = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8).split(LINE_SEPARATOR, -1);
+            List<Sort.Order> orders = new ArrayList<>();
+            Map<String, Object> keys = new LinkedHashMap<>();
+            String[] encodedOrders = lines[0].split(ORDER_SEPARATOR);
+            for (int i = 0; i < encodedOrders.length; i++) {
+                String[] order = encodedOrders[i].split(DIRECTION_SEPARATOR);
+                checkSortable(order[0]);
+                orders.add(new Sort.Order(Sort.Direction.valueOf(order[1]), order[0]));
+                keys.put(order[0], SORTABLE_PROPERTIES.get(order[0]).apply(new String(
+                        Base64.getUrlDecoder().decode(lines[i + 1]), StandardCharsets.UTF_8)));
+            }
+            return new BookCursor(Sort.by(orders), ScrollPosition.forward(keys));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Can't read book cursor " + token, e);
+        }
+    }
+
+    public BookCursor next(KeysetScrollPosition nextPosition) {
+        return new BookCursor(sort, nextPosition);
+    }
+
+    public String encode() {
+        List<String> orders = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.getProperty() + DIRECTION_SEPARATOR + order.getDirection());
+            values.add(encodeToString(String.valueOf(position.getKeys().get(order.getProperty()))));
+        }
+        return encodeToString(String.join(ORDER_SEPARATOR, orders)
+                + LINE_SEPARATOR + String.join(LINE_SEPARATOR, values));
+    }
+
+    private static String encodeToString(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void checkSortable(String property) {
+        if (!SORTABLE_PROPERTIES.containsKey(property)) {
+            throw new InvalidRequestException("Can't page books by cursor sorted by " + property);
+        }
+    }
+}
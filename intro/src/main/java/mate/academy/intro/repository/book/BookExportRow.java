@@ -0,0 +1,23 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+
+public interface BookExportRow {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthor();
+
+    String getIsbn();
+
+    BigDecimal getPrice();
+
+    String getDescription();
+
+    String getCoverImage();
+
+    Long getCategoryId();
+
+    boolean isDeleted();
+}
@@ -0,0 +1,16 @@
+package mate.academy.intro.repository.book;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import mate.academy.intro.model.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookFacetRepository {
+    List<Book> findAllWithoutCount(Specification<Book> specification, Pageable pageable);
+
+    Map<Long, Long> countByCategory(Specification<Book> specification);
+
+    List<Long> countByPriceRange(Specification<Book> specification, List<BigDecimal> bounds);
+}
@@ -0,0 +1,102 @@
+package mate.academy.intro.repository.book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.model.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+@RequiredArgsConstructor
+public class BookFacetRepositoryImpl implements BookFacetRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Book> findAllWithoutCount(Specification<Book> specification,
+                                          Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = criteriaBuilder.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(root);
+        where(query, root, criteriaBuilder, specification);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+        TypedQuery<Book> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Map<Long, Long> countByCategory(Specification<Book> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Path<Long> categoryId = root.join("categories").get("id");
+        query.multiselect(categoryId, criteriaBuilder.count(root))
+                .groupBy(categoryId);
+        where(query, root, criteriaBuilder, specification);
+        Map<Long, Long> counts = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            counts.put(row.get(0, Long.class), row.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    @Override
+    public List<Long> countByPriceRange(Specification<Book> specification,
+                                        List<BigDecimal> bounds) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Path<BigDecimal> price = root.get("price");
+        List<Selection<?>> ranges = new ArrayList<>();
+        for (int i = 0; i <= bounds.size(); i++) {
+            List<Predicate> inRange = new ArrayList<>();
+            if (i > 0) {
+                inRange.add(criteriaBuilder.greaterThanOrEqualTo(price, bounds.get(i - 1)));
+            }
+            if (i < bounds.size()) {
+                inRange.add(criteriaBuilder.lessThan(price, bounds.get(i)));
+            }
+            Expression<Long> inRangeFlag = criteriaBuilder.<Long>selectCase()
+                    .when(criteriaBuilder.and(inRange.toArray(new Predicate[0])), 1L)
+                    .otherwise(0L);
+            ranges.add(criteriaBuilder.sum(inRangeFlag));
+        }
+        query.multiselect(ranges);
+        where(query, root, criteriaBuilder, specification);
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        List<Long> counts = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            Number count = row.get(i, Number.class);
+            counts.add(count == null ? 0L : count.longValue());
+        }
+        return counts;
+    }
+
+    private void where(CriteriaQuery<?> query, Root<Book> root,
+                       CriteriaBuilder criteriaBuilder, Specification<Book> specification) {
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -1,12 +1,79 @@
 package mate.academy.intro.repository.book;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
 import mate.academy.intro.model.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookBatchRepository, BookFacetRepository {
+    String EXPORT_QUERY = "SELECT b.id AS id, b.title AS title, b.author AS author, "
+            + "b.isbn AS isbn, b.price AS price, b.description AS description, "
+            + "b.cover_image AS coverImage, b.is_deleted AS deleted, bc.category_id AS categoryId "
+            + "FROM books b LEFT JOIN books_categories bc ON bc.book_id = b.id "
+            + "AND b.is_deleted = false "
+            + "AND bc.category_id IN (SELECT c.id FROM categories c WHERE c.is_deleted = false) ";
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     @EntityGraph(attributePaths = "categories")
-    List<Book> getAllByCategoriesId(Long categoryId);
+    @Override
+    Optional<Book> findById(Long id);
+
+    @Query("SELECT new mate.academy.intro.dto.book.BookDto(b.id, b.title, b.author, b.isbn, "
+            + "b.price, b.description, b.coverImage, b.version) FROM Book b")
+    List<BookDto> findAllAsDtos(Pageable pageable);
+
+    @Query("SELECT new mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds(b.id, b.title, "
+            + "b.author, b.isbn, b.price, b.description, b.coverImage) "
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
+    Slice<BookDtoWithoutCategoriesIds> findAllAsDtosByCategoryId(Long categoryId,
+                                                                Pageable pageable);
+
+    @Query("SELECT b.id AS bookId, c.id AS categoryId FROM Book b JOIN b.categories c "
+            + "WHERE b.id IN :bookIds")
+    List<BookCategoryId> findCategoryIdsByBookIds(Collection<Long> bookIds);
+
+    List<Book> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT b.version FROM Book b WHERE b.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("SELECT b.id AS id, b.version AS version FROM Book b")
+    List<BookVersion> findAllVersions(Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = EXPORT_QUERY + "WHERE b.is_deleted = false ORDER BY b.id", nativeQuery = true)
+    Stream<BookExportRow> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = EXPORT_QUERY + "WHERE b.updated_at >= :modifiedSince ORDER BY b.id",
+            nativeQuery = true)
+    Stream<BookExportRow> streamAllModifiedSince(LocalDateTime modifiedSince);
+
+    default Map<Long, Set<Long>> findCategoryIdsGroupedByBookId(Collection<Long> bookIds) {
+        return findCategoryIdsByBookIds(bookIds).stream()
+                .collect(Collectors.groupingBy(BookCategoryId::getBookId,
+                        Collectors.mapping(BookCategoryId::getCategoryId, Collectors.toSet())));
+    }
 }
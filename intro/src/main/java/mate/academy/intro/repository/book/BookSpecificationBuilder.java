@@ -1,8 +1,9 @@
 package mate.academy.intro.repository.book;
 
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
-import mate.academy.intro.dto.book.BookSearchParameters;
 import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SearchParameters;
 import mate.academy.intro.repository.SpecificationBuilder;
 import mate.academy.intro.repository.SpecificationProviderManager;
 import org.springframework.data.jpa.domain.Specification;
@@ -14,15 +15,11 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
     private final SpecificationProviderManager<Book> manager;
 
     @Override
-    public Specification<Book> build(BookSearchParameters parameters) {
+    public Specification<Book> build(SearchParameters parameters) {
         Specification<Book> specification = Specification.where(null);
-        if (parameters.getTitles() != null && parameters.getTitles().length > 0) {
-            specification = specification.and(manager.getSpecificationProvider("title")
-                    .getSpecification(parameters.getTitles()));
-        }
-        if (parameters.getAuthors() != null && parameters.getAuthors().length > 0) {
-            specification = specification.and(manager.getSpecificationProvider("author")
-                    .getSpecification(parameters.getAuthors()));
+        for (Map.Entry<String, String[]> param : parameters.toSpecificationParams().entrySet()) {
+            specification = specification.and(manager.getSpecificationProvider(param.getKey())
+                    .getSpecification(param.getValue()));
         }
         return specification;
     }
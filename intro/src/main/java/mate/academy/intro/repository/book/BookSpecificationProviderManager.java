@@ -1,23 +1,36 @@
 package mate.academy.intro.repository.book;
 
+import java.util.HashMap;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.repository.SpecificationProvider;
 import mate.academy.intro.repository.SpecificationProviderManager;
 import org.springframework.stereotype.Component;
 
-@RequiredArgsConstructor
 @Component
 public class BookSpecificationProviderManager implements SpecificationProviderManager<Book> {
-    private final List<SpecificationProvider<Book>> bookSpecificationProvider;
+    private final Map<String, SpecificationProvider<Book>> providersByKey;
+
+    public BookSpecificationProviderManager(List<SpecificationProvider<Book>> providers) {
+        Map<String, SpecificationProvider<Book>> byKey = new HashMap<>();
+        for (SpecificationProvider<Book> provider : providers) {
+            SpecificationProvider<Book> duplicate = byKey.putIfAbsent(provider.getKey(), provider);
+            if (duplicate != null) {
+                throw new IllegalStateException("Duplicate book specification provider key "
+                        + provider.getKey() + " in " + duplicate.getClass().getSimpleName()
+                        + " and " + provider.getClass().getSimpleName());
+            }
+        }
+        providersByKey = Map.copyOf(byKey);
+    }
 
     @Override
     public SpecificationProvider<Book> getSpecificationProvider(String key) {
-        return bookSpecificationProvider.stream()
-                .filter(b -> b.getKey().equals(key))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Cant find corect cpec provider for key "
-                        + key));
+        SpecificationProvider<Book> provider = providersByKey.get(key);
+        if (provider == null) {
+            throw new RuntimeException("Cant find corect cpec provider for key " + key);
+        }
+        return provider;
     }
 }
@@ -0,0 +1,28 @@
+package mate.academy.intro.repository.book;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.Arrays;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SpecificationProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategorySpecificationProvider implements SpecificationProvider<Book> {
+    @Override
+    public String getKey() {
+        return "categories";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            Subquery<Long> inCategories = query.subquery(Long.class);
+            Root<Book> book = inCategories.from(Book.class);
+            inCategories.select(book.get("id"))
+                    .where(book.join("categories").get("id")
+                            .in(Arrays.stream(params).map(Long::valueOf).toArray()));
+            return root.get("id").in(inCategories);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package mate.academy.intro.repository.book;
+
+import jakarta.persistence.criteria.Predicate;
+import java.util.Arrays;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SpecificationProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IsbnSpecificationProvider implements SpecificationProvider<Book> {
+    private static final char ESCAPE = '\\';
+
+    @Override
+    public String getKey() {
+        return "isbn";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(Arrays.stream(params)
+                .map(prefix -> criteriaBuilder.like(root.get("isbn"),
+                        escape(prefix) + "%", ESCAPE))
+                .toArray(Predicate[]::new));
+    }
+
+    private String escape(String prefix) {
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,33 @@
+package mate.academy.intro.repository.book;
+
+import jakarta.persistence.criteria.Predicate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.SpecificationProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PriceSpecificationProvider implements SpecificationProvider<Book> {
+    @Override
+    public String getKey() {
+        return "price";
+    }
+
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (params.length > 0 && !params[0].isEmpty()) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"),
+                        new BigDecimal(params[0])));
+            }
+            if (params.length > 1 && !params[1].isEmpty()) {
+                predicates.add(criteriaBuilder.lessThan(root.get("price"),
+                        new BigDecimal(params[1])));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package mate.academy.intro.repository.cartitem;
+
+import java.util.Map;
+
+public interface CartItemBatchRepository {
+    void updateQuantities(Map<Long, Integer> quantitiesByCartItemId);
+}
@@ -0,0 +1,29 @@
+package mate.academy.intro.repository.cartitem;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+public class CartItemBatchRepositoryImpl implements CartItemBatchRepository {
+    private static final String UPDATE_QUANTITY = "UPDATE cart_items SET quantity = :quantity "
+            + "WHERE id = :id AND is_deleted = false";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateQuantities(Map<Long, Integer> quantitiesByCartItemId) {
+        if (quantitiesByCartItemId.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_QUANTITY, quantitiesByCartItemId.entrySet().stream()
+                .map(quantity -> new MapSqlParameterSource()
+                        .addValue("id", quantity.getKey())
+                        .addValue("quantity", quantity.getValue()))
+                .toArray(SqlParameterSource[]::new));
+    }
+}
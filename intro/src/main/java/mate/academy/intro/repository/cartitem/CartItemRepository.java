@@ -1,8 +1,51 @@
 package mate.academy.intro.repository.cartitem;
 
+import java.util.Optional;
+import mate.academy.intro.dto.cart.CartItemDto;
 import mate.academy.intro.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>,
+        CartItemBatchRepository {
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.isDeleted = true "
+            + "WHERE ci.shoppingCart.id = :shoppingCartId AND ci.isDeleted = false")
+    int deleteAllByShoppingCartId(Long shoppingCartId);
 
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE cart_items SET quantity = CASE WHEN is_deleted = true THEN :quantity "
+            + "ELSE quantity + :quantity END, is_deleted = false "
+            + "WHERE shopping_cart_id = :shoppingCartId AND book_id = :bookId",
+            nativeQuery = true)
+    int addQuantity(Long shoppingCartId, Long bookId, int quantity);
+
+    @Query("SELECT new mate.academy.intro.dto.cart.CartItemDto(ci.id, b.id, b.title, "
+            + "ci.quantity, b.price) "
+            + "FROM CartItem ci JOIN ci.book b "
+            + "WHERE ci.shoppingCart.id = :shoppingCartId AND b.id = :bookId")
+    Optional<CartItemDto> findDtoByShoppingCartIdAndBookId(Long shoppingCartId, Long bookId);
+
+    @Query("SELECT new mate.academy.intro.dto.cart.CartItemDto(ci.id, b.id, b.title, "
+            + "ci.quantity, b.price) "
+            + "FROM CartItem ci JOIN ci.book b JOIN ci.shoppingCart sc "
+            + "WHERE ci.id = :cartItemId AND sc.user.id = :userId")
+    Optional<CartItemDto> findDtoByIdAndUserId(Long cartItemId, Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = :quantity "
+            + "WHERE ci.id = :cartItemId AND ci.isDeleted = false AND ci.shoppingCart.id IN "
+            + "(SELECT sc.id FROM ShoppingCart sc WHERE sc.user.id = :userId)")
+    int updateQuantityByIdAndUserId(Long cartItemId, Long userId, int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.isDeleted = true "
+            + "WHERE ci.id = :cartItemId AND ci.isDeleted = false AND ci.shoppingCart.id IN "
+            + "(SELECT sc.id FROM ShoppingCart sc WHERE sc.user.id = :userId)")
+    int deleteByIdAndUserId(Long cartItemId, Long userId);
 }
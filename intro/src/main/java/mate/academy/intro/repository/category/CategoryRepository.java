@@ -1,9 +1,23 @@
 package mate.academy.intro.repository.category;
 
+import java.util.Collection;
 import mate.academy.intro.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Modifying
+    @Query(value = "UPDATE categories SET book_count = book_count + :delta WHERE id IN :ids",
+            nativeQuery = true)
+    void addToBookCount(Collection<Long> ids, long delta);
+
+    @Modifying
+    @Query(value = "UPDATE categories SET book_count = (SELECT COUNT(*) FROM books_categories bc "
+            + "JOIN books b ON b.id = bc.book_id "
+            + "WHERE bc.category_id = categories.id AND b.is_deleted = false)",
+            nativeQuery = true)
+    void recountBooks();
 }
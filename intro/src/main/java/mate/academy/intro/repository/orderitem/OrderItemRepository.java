@@ -1,10 +1,25 @@
 package mate.academy.intro.repository.orderitem;
 
+import java.math.BigDecimal;
 import java.util.List;
 import mate.academy.intro.model.Order;
 import mate.academy.intro.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> getAllByOrder(Order order);
+
+    @Query("SELECT SUM(oi.price) FROM OrderItem oi WHERE oi.order.id = :orderId")
+    BigDecimal getTotalByOrderId(Long orderId);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items (order_id, book_id, quantity, price) "
+            + "SELECT :orderId, ci.book_id, ci.quantity, b.price * ci.quantity "
+            + "FROM cart_items ci JOIN books b ON b.id = ci.book_id "
+            + "WHERE ci.shopping_cart_id = :shoppingCartId AND ci.is_deleted = false "
+            + "AND b.is_deleted = false",
+            nativeQuery = true)
+    int insertFromShoppingCart(Long orderId, Long shoppingCartId);
 }
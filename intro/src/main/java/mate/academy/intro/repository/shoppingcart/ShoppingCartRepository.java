@@ -3,7 +3,21 @@ package mate.academy.intro.repository.shoppingcart;
 import java.util.Optional;
 import mate.academy.intro.model.ShoppingCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     Optional<ShoppingCart> findShoppingCartByUserId(Long id);
+
+    @Query("SELECT sc.id FROM ShoppingCart sc WHERE sc.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    @Query("SELECT sc.id AS id, sc.version AS version FROM ShoppingCart sc "
+            + "WHERE sc.user.id = :userId")
+    Optional<ShoppingCartVersion> findVersionByUserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE ShoppingCart sc SET sc.version = sc.version + 1 "
+            + "WHERE sc.id = :id AND sc.version = :version")
+    int incrementVersion(Long id, Long version);
 }
@@ -0,0 +1,7 @@
+package mate.academy.intro.repository.shoppingcart;
+
+public interface ShoppingCartVersion {
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,202 @@
+package mate.academy.intro.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import mate.academy.intro.dto.book.BookDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TITLE_WEIGHT = 4;
+    private static final int AUTHOR_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(BookDto book, Collection<String> categoryNames) {
+        lock.writeLock().lock();
+        try {
+            addDocument(book, List.copyOf(categoryNames));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void renameCategory(Long categoryId, String oldName, String newName) {
+        replaceCategory(categoryId, oldName, List.of(newName));
+    }
+
+    public void removeCategory(Long categoryId, String name) {
+        replaceCategory(categoryId, name, List.of());
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BookDto> search(String query, Pageable pageable) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : new HashSet<>(queryTerms)) {
+                Map<Long, Double> termScores = scoreTerm(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + termScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return topDocuments(scores, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Long, Double> scoreTerm(String queryTerm) {
+        Map<Long, Double> termScores = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(queryTerm);
+        if (exact != null) {
+            addPosting(termScores, exact, 1);
+        }
+        postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).values()
+                .stream()
+                .sorted(Comparator.comparingInt(Map<Long, Integer>::size).reversed())
+                .limit(MAX_PREFIX_EXPANSIONS)
+                .forEach(posting -> addPosting(termScores, posting, PREFIX_MATCH_FACTOR));
+        return termScores;
+    }
+
+    private void addPosting(Map<Long, Double> termScores, Map<Long, Integer> posting,
+                            double factor) {
+        double idf = Math.log(1 + (double) documents.size() / posting.size());
+        posting.forEach((bookId, weight) ->
+                termScores.merge(bookId, weight * idf * factor, Math::max));
+    }
+
+    private List<BookDto> topDocuments(Map<Long, Double> scores, Pageable pageable) {
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            top.offer(score);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(ranking);
+        return ranked.stream()
+                .skip(pageable.getOffset())
+                .map(score -> documents.get(score.getKey()).book())
+                .toList();
+    }
+
+    private void replaceCategory(Long categoryId, String oldName, List<String> newNames) {
+        lock.writeLock().lock();
+        try {
+            List<Document> renamed = documents.values().stream()
+                    .filter(document -> document.book().getCategoriesId() != null
+                            && document.book().getCategoriesId().contains(categoryId)
+                            && document.categoryNames().contains(oldName))
+                    .toList();
+            for (Document document : renamed) {
+                List<String> categoryNames = new ArrayList<>(document.categoryNames());
+                categoryNames.remove(oldName);
+                categoryNames.addAll(newNames);
+                addDocument(document.book(), categoryNames);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(BookDto book, List<String> categoryNames) {
+        Map<String, Integer> termWeights = new HashMap<>();
+        addTerms(termWeights, book.getTitle(), TITLE_WEIGHT);
+        addTerms(termWeights, book.getAuthor(), AUTHOR_WEIGHT);
+        addTerms(termWeights, book.getDescription(), DESCRIPTION_WEIGHT);
+        for (String categoryName : categoryNames) {
+            addTerms(termWeights, categoryName, CATEGORY_WEIGHT);
+        }
+        removeDocument(book.getId());
+        termWeights.forEach((term, weight) -> postings
+                .computeIfAbsent(term, t -> new HashMap<>())
+                .put(book.getId(), weight));
+        documents.put(book.getId(), new Document(book, categoryNames, termWeights.keySet()));
+    }
+
+    private void removeDocument(Long bookId) {
+        Document document = documents.remove(bookId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            termWeights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private record Document(BookDto book, List<String> categoryNames, Set<String> terms) {
+    }
+}
@@ -0,0 +1,50 @@
+package mate.academy.intro.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.CategorySnapshot;
+import mate.academy.intro.dto.category.CategoryDto;
+import mate.academy.intro.mapper.BookMapper;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.repository.book.BookRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class BookSearchIndexInitializer {
+    private static final int BATCH_SIZE = 1000;
+    private final BookSearchIndex searchIndex;
+    private final BookRepository bookRepository;
+    private final CategorySnapshot categorySnapshot;
+    private final BookMapper bookMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        Map<Long, String> categoryNames = categorySnapshot.findAll().stream()
+                .collect(Collectors.toMap(CategoryDto::getId, CategoryDto::getName));
+        PageRequest batch = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+        List<Book> books = bookRepository.findAllByIdGreaterThan(0L, batch);
+        while (!books.isEmpty()) {
+            Map<Long, Set<Long>> categoryIds = bookRepository.findCategoryIdsGroupedByBookId(
+                    books.stream().map(Book::getId).toList());
+            for (Book book : books) {
+                Set<Long> bookCategoryIds = categoryIds.getOrDefault(book.getId(), Set.of());
+                searchIndex.index(bookMapper.toDto(book, bookCategoryIds),
+                        bookCategoryIds.stream()
+                                .map(categoryNames::get)
+                                .filter(Objects::nonNull)
+                                .toList());
+            }
+            books = bookRepository.findAllByIdGreaterThan(books.get(books.size() - 1).getId(),
+                    batch);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package mate.academy.intro.security;
 import lombok.RequiredArgsConstructor;
 import mate.academy.intro.dto.user.UserLoginRequestDto;
 import mate.academy.intro.dto.user.UserLoginResponseDto;
+import mate.academy.intro.model.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -13,13 +15,17 @@ import org.springframework.stereotype.Service;
 public class AuthenticationService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    @Value("${jwt.self-contained}")
+    private boolean selfContained;
 
     public UserLoginResponseDto authenticate(UserLoginRequestDto requestDto) {
         final Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(requestDto.getEmail(),
                         requestDto.getPassword())
         );
-        String token = jwtUtil.generateToken(authentication.getName());
+        String token = selfContained
+                ? jwtUtil.generateToken(UserPrincipal.of((User) authentication.getPrincipal()))
+                : jwtUtil.generateToken(authentication.getName());
         return new UserLoginResponseDto(token);
     }
 }
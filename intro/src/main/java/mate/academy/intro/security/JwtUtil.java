@@ -1,25 +1,33 @@
 package mate.academy.intro.security;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.stream.Collectors;
+import mate.academy.intro.model.Role;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JwtUtil {
-    private Key secret;
+    private static final String USER_ID = "userId";
+    private static final String ROLES = "roles";
+    private final Key secret;
+    private final JwtParser parser;
     @Value("${jwt.expiration}")
     private long expiration;
 
     public JwtUtil(@Value("${jwt.secret}") String secretString) {
         secret = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(secret)
+                .build();
     }
 
     public String generateToken(String email) {
@@ -31,29 +39,38 @@ public class JwtUtil {
                 .compact();
     }
 
-    public boolean isValidToken(String token) {
-        try {
-            Jws<Claims> claimsJws = Jwts.parserBuilder()
-                    .setSigningKey(secret)
-                    .build()
-                    .parseClaimsJws(token);
+    public String generateToken(UserPrincipal principal) {
+        return Jwts.builder()
+                .setSubject(principal.getEmail())
+                .claim(USER_ID, principal.getId())
+                .claim(ROLES, principal.getRoles().stream()
+                        .map(Role.RoleName::name)
+                        .toList())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(secret)
+                .compact();
+    }
 
-            return !claimsJws.getBody().getExpiration().before(new Date());
+    public Claims parseToken(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
             throw new JwtException("Expired or invalid JWT token");
         }
     }
 
-    public String getUserName(String token) {
-        return getClaimsFromToken(token, Claims::getSubject);
+    public boolean isSelfContained(Claims claims) {
+        return claims.containsKey(USER_ID) && claims.containsKey(ROLES);
     }
 
-    private <T> T getClaimsFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+    public UserPrincipal getPrincipal(Claims claims) {
+        List<?> roles = claims.get(ROLES, List.class);
+        return new UserPrincipal(
+                claims.get(USER_ID, Long.class),
+                claims.getSubject(),
+                roles.stream()
+                        .map(role -> Role.RoleName.valueOf(role.toString()))
+                        .collect(Collectors.toUnmodifiableSet()));
     }
 }
@@ -0,0 +1,39 @@
+package mate.academy.intro.security;
+
+import java.util.Date;
+import mate.academy.intro.cache.ExpiringCache;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+import mate.academy.intro.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PrincipalCache {
+    private final ExpiringCache<Key, UserPrincipal> principals;
+    private final UserDetailsService userDetailsService;
+
+    public PrincipalCache(
+            UserDetailsService userDetailsService,
+            @Value("${cache.principals.max-size}") int maxSize,
+            @Value("${cache.principals.ttl}") long ttl) {
+        this.userDetailsService = userDetailsService;
+        this.principals = new ExpiringCache<>(maxSize, ttl);
+    }
+
+    public UserPrincipal get(String username, Date issuedAt) {
+        return principals.get(new Key(username, issuedAt), key -> UserPrincipal.of(
+                (User) userDetailsService.loadUserByUsername(key.username())));
+    }
+
+    public void invalidate(Long userId) {
+        principals.invalidateIf((key, principal) -> principal.getId().equals(userId));
+    }
+
+    public CacheStatsDto getStats() {
+        return principals.getStats();
+    }
+
+    private record Key(String username, Date issuedAt) {
+    }
+}
@@ -0,0 +1,45 @@
+package mate.academy.intro.security;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import mate.academy.intro.model.Role;
+import mate.academy.intro.model.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+@RequiredArgsConstructor
+public class UserPrincipal implements AuthenticatedPrincipal {
+    private final Long id;
+    private final String email;
+    private final Set<Role.RoleName> roles;
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public boolean hasRole(Role.RoleName role) {
+        return roles.contains(role);
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.name()))
+                .toList();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
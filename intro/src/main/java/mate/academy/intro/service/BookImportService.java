@@ -0,0 +1,10 @@
+package mate.academy.intro.service;
+
+import java.io.InputStream;
+import mate.academy.intro.dto.book.BookImportResultDto;
+
+public interface BookImportService {
+    BookImportResultDto importCsv(InputStream input);
+
+    BookImportResultDto importJsonLines(InputStream input);
+}
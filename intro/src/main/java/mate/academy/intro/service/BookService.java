@@ -1,9 +1,18 @@
 package mate.academy.intro.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import mate.academy.intro.dto.book.BookCursorPageDto;
 import mate.academy.intro.dto.book.BookDto;
 import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.book.BookExportDto;
+import mate.academy.intro.dto.book.BookFacetedSearchDto;
+import mate.academy.intro.dto.book.BookLookupDto;
+import mate.academy.intro.dto.book.BookSearchParameters;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+import mate.academy.intro.dto.category.CategoryBooksCursorPageDto;
 import org.springframework.data.domain.Pageable;
 
 public interface BookService {
@@ -11,14 +20,32 @@ public interface BookService {
 
     BookDto findById(Long id);
 
+    String getETag(Long id);
+
     List<BookDto> findAll(Pageable pageable);
 
+    String getETag(Pageable pageable);
+
+    BookLookupDto findAllById(List<Long> ids);
+
+    BookCursorPageDto findAll(String cursor, Pageable pageable);
+
+    void exportAll(LocalDateTime modifiedSince, Consumer<BookExportDto> consumer);
+
     void deleteById(Long id);
 
     List<BookDto> search(List<String> title, List<String> author);
 
+    List<BookDto> search(String query, Pageable pageable);
+
+    BookFacetedSearchDto search(BookSearchParameters parameters, Pageable pageable);
+
     BookDto update(Long id, CreateBookRequestDto bookDto);
 
-    List<BookDtoWithoutCategoriesIds> findAllByCategoryId(Long categoryId);
+    List<BookDtoWithoutCategoriesIds> findAllByCategoryId(Long categoryId, Pageable pageable);
+
+    CategoryBooksCursorPageDto findAllByCategoryId(Long categoryId, String cursor,
+                                                   Pageable pageable);
 
+    CacheStatsDto getCacheStats();
 }
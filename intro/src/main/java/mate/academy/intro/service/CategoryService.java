@@ -9,9 +9,13 @@ public interface CategoryService {
 
     CategoryDto getById(Long id);
 
+    String getETag(Long id);
+
     CategoryDto save(CategoryDto categoryDto);
 
     CategoryDto update(Long id, CategoryDto categoryDto);
 
     void deleteById(Long id);
+
+    void recountBooks();
 }
@@ -4,16 +4,16 @@ import java.util.List;
 import mate.academy.intro.dto.order.OrderDto;
 import mate.academy.intro.dto.order.OrderItemDto;
 import mate.academy.intro.dto.order.StatusRequestDto;
-import mate.academy.intro.model.User;
+import mate.academy.intro.security.UserPrincipal;
 
 public interface OrderService {
-    OrderDto createOrder(User user, String shippingAddress);
+    OrderDto createOrder(Long userId, String shippingAddress, String idempotencyKey);
 
-    List<OrderDto> findAllOrders(User user);
+    List<OrderDto> findAllOrders(Long userId);
 
     OrderDto updateOrderStatus(Long orderId, StatusRequestDto statusRequest);
 
-    List<OrderItemDto> getItemsListFromOrder(User user, Long orderId);
+    List<OrderItemDto> getItemsListFromOrder(UserPrincipal user, Long orderId);
 
-    OrderItemDto getItemFromOrder(User user, Long orderId, Long itemId);
+    OrderItemDto getItemFromOrder(UserPrincipal user, Long orderId, Long itemId);
 }
@@ -0,0 +1,246 @@
+package mate.academy.intro.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.CategorySnapshot;
+import mate.academy.intro.cache.ExpiringCache;
+import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.book.BookImportErrorDto;
+import mate.academy.intro.dto.book.BookImportResultDto;
+import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.category.CategoryDto;
+import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.mapper.BookMapper;
+import mate.academy.intro.model.Book;
+import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.book.BookRepository;
+import mate.academy.intro.search.BookSearchIndex;
+import mate.academy.intro.service.BookImportService;
+import mate.academy.intro.service.CategoryService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+@RequiredArgsConstructor
+@Service
+public class BookImportServiceImpl implements BookImportService {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+    private static final String CATEGORY_SEPARATOR = ";";
+    private static final Set<String> CSV_COLUMNS = Set.of(
+            "title", "author", "isbn", "price", "description", "coverImage", "categories");
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExpiringCache<Long, BookDto> bookCache;
+    private final BookSearchIndex searchIndex;
+    private final CategorySnapshot categorySnapshot;
+    private final CategoryService categoryService;
+
+    @Override
+    public BookImportResultDto importCsv(InputStream input) {
+        try (BufferedReader reader = newReader(input)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new BookImportResultDto();
+            }
+            List<String> columns = parseCsvLine(header);
+            for (String column : columns) {
+                if (!CSV_COLUMNS.contains(column)) {
+                    throw new RuntimeException("Can't import books with unknown column " + column);
+                }
+            }
+            return importRows(reader, 1, line -> toRequestDto(columns, parseCsvLine(line)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read books import", e);
+        }
+    }
+
+    @Override
+    public BookImportResultDto importJsonLines(InputStream input) {
+        try (BufferedReader reader = newReader(input)) {
+            return importRows(reader, 0,
+                    line -> objectMapper.readValue(line, CreateBookRequestDto.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read books import", e);
+        }
+    }
+
+    private BookImportResultDto importRows(BufferedReader reader, long firstLine,
+                                           RowParser parser) throws IOException {
+        Map<Long, Category> categories = categorySnapshot.findAll().stream()
+                .collect(Collectors.toMap(CategoryDto::getId, category -> new Category()
+                        .setId(category.getId())
+                        .setName(category.getName())));
+        BookImportResultDto result = new BookImportResultDto();
+        Map<String, ImportRow> batch = new LinkedHashMap<>();
+        long lineNumber = firstLine;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Book book;
+            try {
+                book = toModel(parser.parse(line), categories);
+            } catch (IOException | RuntimeException e) {
+                addError(result, lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == BATCH_SIZE || batch.containsKey(book.getIsbn())) {
+                saveBatch(new ArrayList<>(batch.values()), result);
+                batch.clear();
+            }
+            batch.put(book.getIsbn(), new ImportRow(lineNumber, book));
+        }
+        saveBatch(new ArrayList<>(batch.values()), result);
+        if (result.getInserted() + result.getUpdated() > 0) {
+            categoryService.recountBooks();
+        }
+        return result;
+    }
+
+    private Book toModel(CreateBookRequestDto requestDto, Map<Long, Category> categories) {
+        Set<ConstraintViolation<CreateBookRequestDto>> violations =
+                validator.validate(requestDto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        Book book = bookMapper.toModel(requestDto);
+        if (requestDto.getCategories() != null) {
+            for (Long categoryId : requestDto.getCategories()) {
+                Category category = categories.get(categoryId);
+                if (category == null) {
+                    throw new EntityNotFoundException("Can't find category with id " + categoryId);
+                }
+                book.getCategories().add(category);
+            }
+        }
+        return book;
+    }
+
+    private void saveBatch(List<ImportRow> rows, BookImportResultDto result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Book> books = rows.stream()
+                .map(ImportRow::book)
+                .toList();
+        try {
+            int inserted = bookRepository.upsertAllByIsbn(books);
+            result.setInserted(result.getInserted() + inserted)
+                    .setUpdated(result.getUpdated() + books.size() - inserted);
+        } catch (DataAccessException e) {
+            if (rows.size() == 1) {
+                addError(result, rows.get(0).line(),
+                        "Can't save book: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            int middle = rows.size() / 2;
+            saveBatch(rows.subList(0, middle), result);
+            saveBatch(rows.subList(middle, rows.size()), result);
+            return;
+        }
+        for (Book book : books) {
+            bookCache.invalidate(book.getId());
+            searchIndex.index(bookMapper.toDto(book), book.getCategories().stream()
+                    .map(Category::getName)
+                    .toList());
+        }
+    }
+
+    private void addError(BookImportResultDto result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BookImportErrorDto()
+                    .setLine(line)
+                    .setMessage(message));
+        }
+    }
+
+    private CreateBookRequestDto toRequestDto(List<String> columns, List<String> values) {
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size()
+                    + " values, but got " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        String price = row.get("price");
+        String categories = row.get("categories");
+        return new CreateBookRequestDto()
+                .setTitle(row.get("title"))
+                .setAuthor(row.get("author"))
+                .setIsbn(row.get("isbn"))
+                .setPrice(price == null ? null : new BigDecimal(price.trim()))
+                .setDescription(row.get("description"))
+                .setCoverImage(row.get("coverImage"))
+                .setCategories(categories == null ? null : Arrays.stream(categories
+                                .split(CATEGORY_SEPARATOR))
+                        .map(String::trim)
+                        .map(Long::valueOf)
+                        .collect(Collectors.toCollection(HashSet::new)));
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (quoted && c == CSV_QUOTE && i < line.length() && line.charAt(i) == CSV_QUOTE) {
+                value.append(c);
+                i++;
+            } else if (c == CSV_QUOTE) {
+                quoted = !quoted;
+            } else if (!quoted && c == CSV_SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private BufferedReader newReader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    private record ImportRow(long line, Book book) {
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        CreateBookRequestDto parse(String line) throws IOException;
+    }
+}
@@ -1,91 +1,383 @@
 package mate.academy.intro.service.impl;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.AfterCommit;
+import mate.academy.intro.cache.CategorySnapshot;
+import mate.academy.intro.cache.ExpiringCache;
+import mate.academy.intro.dto.book.BookCursorPageDto;
 import mate.academy.intro.dto.book.BookDto;
 import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.book.BookExportDto;
+import mate.academy.intro.dto.book.BookFacetedSearchDto;
+import mate.academy.intro.dto.book.BookLookupDto;
 import mate.academy.intro.dto.book.BookSearchParameters;
+import mate.academy.intro.dto.book.CategoryFacetDto;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.book.PriceFacetDto;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+import mate.academy.intro.dto.category.CategoryBooksCursorPageDto;
+import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.exception.EntityNotFoundException;
+import mate.academy.intro.exception.InvalidRequestException;
 import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.model.Book;
 import mate.academy.intro.model.Category;
+import mate.academy.intro.repository.book.BookCursor;
+import mate.academy.intro.repository.book.BookExportRow;
 import mate.academy.intro.repository.book.BookRepository;
 import mate.academy.intro.repository.book.BookSpecificationBuilder;
 import mate.academy.intro.repository.category.CategoryRepository;
+import mate.academy.intro.search.BookSearchIndex;
 import mate.academy.intro.service.BookService;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
+    private static final int MAX_LOOKUP_IDS = 200;
+    private static final List<BigDecimal> PRICE_RANGE_BOUNDS = List.of(BigDecimal.valueOf(50),
+            BigDecimal.valueOf(100), BigDecimal.valueOf(200), BigDecimal.valueOf(500));
     private final BookRepository bookRepository;
     private final CategoryRepository categoryRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder builder;
+    private final ExpiringCache<Long, BookDto> bookCache;
+    private final BookSearchIndex searchIndex;
+    private final CategorySnapshot categorySnapshot;
 
     @Override
+    @Transactional
     public BookDto save(CreateBookRequestDto requestDto) {
         Book book = bookMapper.toModel(requestDto);
-        if (requestDto.getCategories() != null && requestDto.getCategories().size() > 0) {
-            for (Long categoryId : requestDto.getCategories()) {
-                Category category = categoryRepository.findById(categoryId).orElseThrow(() ->
-                        new EntityNotFoundException("Can't find category with id " + categoryId));
-                book.getCategories().add(category);
-            }
-        }
+        addCategories(book, requestDto.getCategories());
         book.setId(bookRepository.save(book).getId());
-        return bookMapper.toDto(book);
+        changeBookCounts(Set.of(), getCategoryIds(requestDto));
+        BookDto savedBook = bookMapper.toDto(book);
+        List<String> categoryNames = getCategoryNames(book);
+        AfterCommit.run(() -> {
+            bookCache.invalidate(savedBook.getId());
+            searchIndex.index(savedBook, categoryNames);
+        });
+        return savedBook;
     }
 
     @Override
     public BookDto findById(Long id) {
-        return bookMapper.toDto(bookRepository.findById(id).orElseThrow(() ->
-                new EntityNotFoundException("Can't get book with id: " + id)));
+        return bookCache.get(id, bookId -> bookMapper.toDto(bookRepository.findById(bookId)
+                .orElseThrow(() ->
+                        new EntityNotFoundException("Can't get book with id: " + bookId))));
+    }
+
+    @Override
+    public String getETag(Long id) {
+        BookDto cached = bookCache.peek(id);
+        Long version = cached != null
+                ? cached.getVersion()
+                : bookRepository.findVersionById(id).orElseThrow(() ->
+                        new EntityNotFoundException("Can't get book with id: " + id));
+        return String.valueOf(version);
     }
 
     @Override
     public List<BookDto> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable).stream()
-                .map(bookMapper::toDto)
+        List<BookDto> books = bookRepository.findAllAsDtos(pageable);
+        if (books.isEmpty()) {
+            return books;
+        }
+        Map<Long, Set<Long>> categoryIds = bookRepository.findCategoryIdsGroupedByBookId(
+                books.stream().map(BookDto::getId).toList());
+        books.forEach(book ->
+                book.setCategoriesId(categoryIds.getOrDefault(book.getId(), new HashSet<>())));
+        return books;
+    }
+
+    @Override
+    public String getETag(Pageable pageable) {
+        String versions = bookRepository.findAllVersions(pageable).stream()
+                .map(book -> book.getId() + ":" + book.getVersion())
+                .collect(Collectors.joining(","));
+        return DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public BookLookupDto findAllById(List<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
                 .toList();
+        if (distinctIds.size() > MAX_LOOKUP_IDS) {
+            throw new InvalidRequestException("Can't get more than " + MAX_LOOKUP_IDS
+                    + " books at once");
+        }
+        Map<Long, BookDto> books = bookCache.getAll(distinctIds, missingIds ->
+                toDtos(bookRepository.findAllById(missingIds)).stream()
+                        .collect(Collectors.toMap(BookDto::getId, Function.identity())));
+        return new BookLookupDto()
+                .setBooks(distinctIds.stream()
+                        .map(books::get)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .setMissingIds(distinctIds.stream()
+                        .filter(id -> !books.containsKey(id))
+                        .toList());
     }
 
     @Override
+    public BookCursorPageDto findAll(String cursor, Pageable pageable) {
+        BookCursor bookCursor = toBookCursor(cursor, pageable);
+        Window<Book> window = scroll(Specification.where(null), bookCursor, pageable);
+        return new BookCursorPageDto()
+                .setBooks(toDtos(window.getContent()))
+                .setNextCursor(getNextCursor(bookCursor, window));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(LocalDateTime modifiedSince, Consumer<BookExportDto> consumer) {
+        try (Stream<BookExportRow> rows = modifiedSince == null
+                ? bookRepository.streamAll()
+                : bookRepository.streamAllModifiedSince(modifiedSince)) {
+            BookExportDto current = null;
+            Iterator<BookExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                BookExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    current = row.isDeleted()
+                            ? new BookExportDto().setId(row.getId()).setDeleted(true)
+                            : bookMapper.toExportDto(row).setCategoriesId(new HashSet<>());
+                }
+                if (row.getCategoryId() != null) {
+                    current.getCategoriesId().add(row.getCategoryId());
+                }
+            }
+            if (current != null) {
+                consumer.accept(current);
+            }
+        }
+    }
+
+    @Override
+    @Transactional
     public void deleteById(Long id) {
+        Set<Long> categoryIds = findCategoryIds(id);
         bookRepository.deleteById(id);
+        changeBookCounts(categoryIds, Set.of());
+        AfterCommit.run(() -> {
+            bookCache.invalidate(id);
+            searchIndex.remove(id);
+        });
     }
 
     @Override
     public List<BookDto> search(List<String> title, List<String> author) {
         BookSearchParameters params = new BookSearchParameters()
-                .setTitles(title.toArray(new String[0]))
-                .setAuthors(author.toArray(new String[0]));
+                .setTitle(title.toArray(new String[0]))
+                .setAuthor(author.toArray(new String[0]));
         Specification<Book> bookSpecification = builder.build(params);
-        return bookRepository.findAll(bookSpecification).stream()
-                .map(bookMapper::toDto)
-                .toList();
+        return toDtos(bookRepository.findAll(bookSpecification));
     }
 
     @Override
+    public List<BookDto> search(String query, Pageable pageable) {
+        return searchIndex.search(query, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookFacetedSearchDto search(BookSearchParameters parameters, Pageable pageable) {
+        List<Book> books = bookRepository.findAllWithoutCount(builder.build(parameters), pageable);
+        Map<Long, Long> categoryCounts = bookRepository.countByCategory(
+                builder.build(copyOf(parameters).setCategory(null)));
+        List<Long> priceCounts = bookRepository.countByPriceRange(
+                builder.build(copyOf(parameters).setMinPrice(null).setMaxPrice(null)),
+                PRICE_RANGE_BOUNDS);
+        return new BookFacetedSearchDto()
+                .setBooks(toDtos(books))
+                .setCategories(toCategoryFacets(categoryCounts))
+                .setPrices(toPriceFacets(priceCounts));
+    }
+
+    @Override
+    @Transactional
     public BookDto update(Long id, CreateBookRequestDto bookDto) {
         Optional<Book> optionalBook = bookRepository.findById(id);
         if (optionalBook.isPresent()) {
+            Set<Long> oldCategoryIds = optionalBook.get().getCategories().stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toSet());
             Book book = bookMapper.toModel(bookDto);
-            book.setId(id);
-            bookRepository.save(book);
-            return bookMapper.toDto(book);
+            book.setId(id).setVersion(optionalBook.get().getVersion());
+            addCategories(book, bookDto.getCategories());
+            Book savedBook = bookRepository.saveAndFlush(book);
+            changeBookCounts(oldCategoryIds, getCategoryIds(bookDto));
+            BookDto updatedBook = bookMapper.toDto(savedBook);
+            List<String> categoryNames = getCategoryNames(savedBook);
+            AfterCommit.run(() -> {
+                bookCache.invalidate(id);
+                searchIndex.index(updatedBook, categoryNames);
+            });
+            return updatedBook;
         }
         throw new EntityNotFoundException("The book with id " + id + " was not found");
     }
 
     @Override
-    public List<BookDtoWithoutCategoriesIds> findAllByCategoryId(Long categoryId) {
-        return bookRepository.getAllByCategoriesId(categoryId).stream()
-                .map(bookMapper::toDtoWithoutCategories)
+    public List<BookDtoWithoutCategoriesIds> findAllByCategoryId(Long categoryId,
+                                                                 Pageable pageable) {
+        return bookRepository.findAllAsDtosByCategoryId(categoryId, pageable).getContent();
+    }
+
+    @Override
+    public CategoryBooksCursorPageDto findAllByCategoryId(Long categoryId, String cursor,
+                                                          Pageable pageable) {
+        BookCursor bookCursor = toBookCursor(cursor, pageable);
+        Specification<Book> inCategory = builder.build(new BookSearchParameters()
+                .setCategory(new String[]{String.valueOf(categoryId)}));
+        Window<Book> window = scroll(inCategory, bookCursor, pageable);
+        return new CategoryBooksCursorPageDto()
+                .setBooks(window.map(bookMapper::toDtoWithoutCategories).getContent())
+                .setNextCursor(getNextCursor(bookCursor, window));
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        return bookCache.getStats();
+    }
+
+    private BookCursor toBookCursor(String cursor, Pageable pageable) {
+        return cursor == null
+                ? BookCursor.first(pageable.getSort())
+                : BookCursor.decode(cursor);
+    }
+
+    private Window<Book> scroll(Specification<Book> specification, BookCursor bookCursor,
+                                Pageable pageable) {
+        return bookRepository.findBy(specification, query -> query
+                .sortBy(bookCursor.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(bookCursor.getPosition()));
+    }
+
+    private String getNextCursor(BookCursor bookCursor, Window<Book> window) {
+        if (!window.hasNext()) {
+            return null;
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        return bookCursor.next(last).encode();
+    }
+
+    private List<BookDto> toDtos(List<Book> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        List<Long> bookIds = books.stream()
+                .map(Book::getId)
+                .toList();
+        Map<Long, Set<Long>> categoryIds = bookRepository.findCategoryIdsGroupedByBookId(bookIds);
+        return books.stream()
+                .map(book -> bookMapper.toDto(book,
+                        categoryIds.getOrDefault(book.getId(), new HashSet<>())))
+                .toList();
+    }
+
+    private BookSearchParameters copyOf(BookSearchParameters parameters) {
+        return new BookSearchParameters()
+                .setTitle(parameters.getTitle())
+                .setAuthor(parameters.getAuthor())
+                .setCategory(parameters.getCategory())
+                .setIsbn(parameters.getIsbn())
+                .setMinPrice(parameters.getMinPrice())
+                .setMaxPrice(parameters.getMaxPrice());
+    }
+
+    private List<CategoryFacetDto> toCategoryFacets(Map<Long, Long> categoryCounts) {
+        return categoryCounts.entrySet().stream()
+                .flatMap(count -> categorySnapshot.findById(count.getKey()).stream()
+                        .map(category -> new CategoryFacetDto()
+                                .setId(category.getId())
+                                .setName(category.getName())
+                                .setCount(count.getValue())))
+                .sorted(Comparator.comparingLong(CategoryFacetDto::getCount).reversed()
+                        .thenComparing(CategoryFacetDto::getName))
+                .toList();
+    }
+
+    private List<PriceFacetDto> toPriceFacets(List<Long> priceCounts) {
+        List<PriceFacetDto> facets = new ArrayList<>();
+        for (int i = 0; i < priceCounts.size(); i++) {
+            facets.add(new PriceFacetDto()
+                    .setFrom(i == 0 ? BigDecimal.ZERO : PRICE_RANGE_BOUNDS.get(i - 1))
+                    .setTo(i < PRICE_RANGE_BOUNDS.size() ? PRICE_RANGE_BOUNDS.get(i) : null)
+                    .setCount(priceCounts.get(i)));
+        }
+        return facets;
+    }
+
+    private void addCategories(Book book, Set<Long> categoryIds) {
+        if (categoryIds == null) {
+            return;
+        }
+        for (Long categoryId : categoryIds) {
+            categorySnapshot.findById(categoryId).orElseThrow(() ->
+                    new EntityNotFoundException("Can't find category with id " + categoryId));
+            book.getCategories().add(categoryRepository.getReferenceById(categoryId));
+        }
+    }
+
+    private Set<Long> getCategoryIds(CreateBookRequestDto requestDto) {
+        return requestDto.getCategories() == null ? Set.of() : requestDto.getCategories();
+    }
+
+    private Set<Long> findCategoryIds(Long bookId) {
+        return bookRepository.findCategoryIdsGroupedByBookId(List.of(bookId))
+                .getOrDefault(bookId, Set.of());
+    }
+
+    private void changeBookCounts(Set<Long> oldCategoryIds, Set<Long> newCategoryIds) {
+        Set<Long> removed = new HashSet<>(oldCategoryIds);
+        removed.removeAll(newCategoryIds);
+        Set<Long> added = new HashSet<>(newCategoryIds);
+        added.removeAll(oldCategoryIds);
+        addToBookCount(removed, -1);
+        addToBookCount(added, 1);
+    }
+
+    private void addToBookCount(Set<Long> categoryIds, long delta) {
+        if (!categoryIds.isEmpty()) {
+            categoryRepository.addToBookCount(categoryIds, delta);
+            categorySnapshot.refreshAfterCommit(categoryIds);
+        }
+    }
+
+    private List<String> getCategoryNames(Book book) {
+        return book.getCategories().stream()
+                .map(category -> categorySnapshot.findById(category.getId()))
+                .flatMap(Optional::stream)
+                .map(CategoryDto::getName)
                 .toList();
     }
 }
@@ -1,19 +1,25 @@
 package mate.academy.intro.service.impl;
 
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.WriteBehindCartStore;
 import mate.academy.intro.dto.cart.CartItemAddRequestDto;
 import mate.academy.intro.dto.cart.CartItemDto;
 import mate.academy.intro.dto.cart.ShoppingCartResponseDto;
 import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.mapper.CartItemMapper;
 import mate.academy.intro.mapper.ShoppingCartMapper;
-import mate.academy.intro.model.CartItem;
 import mate.academy.intro.model.ShoppingCart;
 import mate.academy.intro.repository.book.BookRepository;
 import mate.academy.intro.repository.cartitem.CartItemRepository;
 import mate.academy.intro.repository.shoppingcart.ShoppingCartRepository;
 import mate.academy.intro.service.CartService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
@@ -23,46 +29,84 @@ public class CartServiceImpl implements CartService {
     private final ShoppingCartMapper shoppingCartMapper;
     private final CartItemMapper cartItemMapper;
     private final BookRepository bookRepository;
+    private final WriteBehindCartStore cartStore;
 
     @Override
     public ShoppingCartResponseDto getByUserId(Long userId) {
         ShoppingCart shoppingCart = findCartByUserId(userId);
-        return shoppingCartMapper.toDto(shoppingCart);
+        ShoppingCartResponseDto shoppingCartDto = shoppingCartMapper.toDto(shoppingCart);
+        Map<Long, Integer> pendingQuantities = cartStore.getPendingQuantities(userId);
+        shoppingCartDto.setCartItems(shoppingCartDto.getCartItems().stream()
+                .map(item -> item.setQuantity(pendingQuantities
+                        .getOrDefault(item.getId(), item.getQuantity())))
+                .collect(Collectors.toSet()));
+        return shoppingCartDto.setTotal(shoppingCartDto.getCartItems().stream()
+                .filter(item -> item.getPrice() != null)
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
     }
 
     @Override
     public CartItemDto addBookToCart(Long userId, CartItemAddRequestDto requestDto) {
-        ShoppingCart shoppingCart = findCartByUserId(userId);
-        CartItem cartItem = cartItemMapper.toModel(requestDto);
-        cartItem.setShoppingCart(shoppingCart);
-        cartItem.setBook(bookRepository.findById(requestDto.getBookId()).orElseThrow(() ->
-                new EntityNotFoundException("Can't find book with id " + requestDto.getBookId())));
-        cartItem.setId(cartItemRepository.save(cartItem).getId());
-        return cartItemMapper.toDto(cartItem);
+        cartStore.flush(userId);
+        Long shoppingCartId = findCartIdByUserId(userId);
+        Long bookId = requestDto.getBookId();
+        if (!bookRepository.existsById(bookId)) {
+            throw new EntityNotFoundException("Can't find book with id " + bookId);
+        }
+        if (cartItemRepository.addQuantity(shoppingCartId, bookId, requestDto.getQuantity()) == 0) {
+            try {
+                cartItemRepository.save(cartItemMapper.toModel(requestDto)
+                        .setShoppingCart(shoppingCartRepository.getReferenceById(shoppingCartId))
+                        .setBook(bookRepository.getReferenceById(bookId)));
+            } catch (DataIntegrityViolationException e) {
+                cartItemRepository.addQuantity(shoppingCartId, bookId, requestDto.getQuantity());
+            }
+        }
+        return cartItemRepository.findDtoByShoppingCartIdAndBookId(shoppingCartId, bookId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can't find book with id " + bookId + " in your cart"));
     }
 
     @Override
+    @Transactional
     public CartItemDto updateBookQuantity(Long userId, Long cartItemId, int quantity) {
-        CartItem cartItem = getItemFromCart(userId, cartItemId);
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
-        return cartItemMapper.toDto(cartItem);
+        if (cartStore.isEnabled()) {
+            Optional<CartItemDto> pending = cartStore.setQuantity(userId, cartItemId, quantity);
+            if (pending.isPresent()) {
+                return pending.get();
+            }
+            CartItemDto cartItem = cartItemRepository.findDtoByIdAndUserId(cartItemId, userId)
+                    .orElseThrow(() -> cartItemNotFound(cartItemId));
+            return cartStore.put(userId, cartItem.setQuantity(quantity));
+        }
+        if (cartItemRepository.updateQuantityByIdAndUserId(cartItemId, userId, quantity) == 0) {
+            throw cartItemNotFound(cartItemId);
+        }
+        return cartItemRepository.findDtoByIdAndUserId(cartItemId, userId)
+                .orElseThrow(() -> cartItemNotFound(cartItemId));
     }
 
     @Override
     public void deleteItem(Long userId, Long cartItemId) {
-        CartItem cartItem = getItemFromCart(userId, cartItemId);
-        cartItemRepository.delete(cartItem);
+        cartStore.remove(userId, cartItemId);
+        if (cartItemRepository.deleteByIdAndUserId(cartItemId, userId) == 0) {
+            throw cartItemNotFound(cartItemId);
+        }
     }
 
-    private CartItem getItemFromCart(Long id, Long cartItemId) {
-        ShoppingCart shoppingCart = findCartByUserId(id);
-        CartItem cartItem = cartItemRepository.findById(cartItemId).orElseThrow(() ->
-                new EntityNotFoundException("Can't find cart item with id " + cartItemId));
-        if (shoppingCart.equals(cartItem.getShoppingCart())) {
-            return cartItem;
+    private RuntimeException cartItemNotFound(Long cartItemId) {
+        if (cartItemRepository.existsById(cartItemId)) {
+            return new RuntimeException(
+                    "Can't find cart item with id " + cartItemId + " in your cart");
         }
-        throw new RuntimeException("Can't find cart item with id " + cartItemId + " in your cart");
+        return new EntityNotFoundException("Can't find cart item with id " + cartItemId);
+    }
+
+    private Long findCartIdByUserId(Long id) {
+        return shoppingCartRepository.findIdByUserId(id).orElseThrow(
+                () -> new EntityNotFoundException(
+                        "Can't find shopping cart for user with id " + id));
     }
 
     private ShoppingCart findCartByUserId(Long id) {
@@ -1,55 +1,82 @@
 package mate.academy.intro.service.impl;
 
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.CategorySnapshot;
 import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.mapper.CategoryMapper;
 import mate.academy.intro.model.Category;
 import mate.academy.intro.repository.category.CategoryRepository;
+import mate.academy.intro.search.BookSearchIndex;
 import mate.academy.intro.service.CategoryService;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategorySnapshot categorySnapshot;
+    private final BookSearchIndex searchIndex;
 
     @Override
     public List<CategoryDto> findAll(Pageable pageable) {
-        return categoryRepository.findAll(pageable).stream()
-                .map(categoryMapper::toDto)
-                .toList();
+        return categorySnapshot.findAll(pageable);
     }
 
     @Override
     public CategoryDto getById(Long id) {
-        Category category = categoryRepository.findById(id).orElseThrow(() ->
+        return categorySnapshot.findById(id).orElseThrow(() ->
                 new EntityNotFoundException("Can't find category with id " + id));
-        return categoryMapper.toDto(category);
+    }
+
+    @Override
+    public String getETag(Long id) {
+        CategoryDto category = getById(id);
+        return category.getVersion() + "-" + category.getBookCount();
     }
 
     @Override
     public CategoryDto save(CategoryDto categoryDto) {
         Category category = categoryMapper.toEntity(categoryDto);
         category.setId(categoryRepository.save(category).getId());
+        categorySnapshot.refresh();
         return categoryMapper.toDto(category);
     }
 
     @Override
     public CategoryDto update(Long id, CategoryDto categoryDto) {
-        Category category = categoryRepository.findById(id).orElseThrow(() ->
+        CategoryDto category = categorySnapshot.findById(id).orElseThrow(() ->
                 new EntityNotFoundException("Category with id " + id + " wasn't found"));
         Category mapperEntity = categoryMapper.toEntity(categoryDto);
-        mapperEntity.setId(id);
+        mapperEntity.setId(id).setVersion(category.getVersion());
         categoryRepository.save(mapperEntity);
-        return categoryMapper.toDto(mapperEntity);
+        categorySnapshot.refresh();
+        if (category.getName() != null && mapperEntity.getName() != null
+                && !category.getName().equals(mapperEntity.getName())) {
+            searchIndex.renameCategory(id, category.getName(), mapperEntity.getName());
+        }
+        return categoryMapper.toDto(mapperEntity).setBookCount(category.getBookCount());
     }
 
     @Override
     public void deleteById(Long id) {
+        Optional<CategoryDto> category = categorySnapshot.findById(id);
         categoryRepository.deleteById(id);
+        categorySnapshot.refresh();
+        category.ifPresent(deleted -> searchIndex.removeCategory(id, deleted.getName()));
+    }
+
+    @Override
+    @Scheduled(cron = "${categories.book-count.reconcile-cron}")
+    @Transactional
+    public void recountBooks() {
+        categoryRepository.recountBooks();
+        categorySnapshot.refreshAfterCommit();
     }
 }
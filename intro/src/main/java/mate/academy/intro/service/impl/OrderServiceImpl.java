@@ -2,17 +2,17 @@ package mate.academy.intro.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import mate.academy.intro.cache.IdempotencyKeyStore;
+import mate.academy.intro.cache.WriteBehindCartStore;
 import mate.academy.intro.dto.order.OrderDto;
 import mate.academy.intro.dto.order.OrderItemDto;
 import mate.academy.intro.dto.order.StatusRequestDto;
 import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.mapper.OrderItemMapper;
 import mate.academy.intro.mapper.OrderMapper;
-import mate.academy.intro.model.CartItem;
 import mate.academy.intro.model.Order;
 import mate.academy.intro.model.OrderItem;
 import mate.academy.intro.model.Role;
@@ -21,10 +21,14 @@ import mate.academy.intro.model.User;
 import mate.academy.intro.repository.cartitem.CartItemRepository;
 import mate.academy.intro.repository.order.OrderRepository;
 import mate.academy.intro.repository.orderitem.OrderItemRepository;
-import mate.academy.intro.repository.role.RoleRepository;
 import mate.academy.intro.repository.shoppingcart.ShoppingCartRepository;
+import mate.academy.intro.repository.shoppingcart.ShoppingCartVersion;
+import mate.academy.intro.repository.user.UserRepository;
+import mate.academy.intro.security.UserPrincipal;
 import mate.academy.intro.service.OrderService;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Service
@@ -32,29 +36,27 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ShoppingCartRepository cartRepository;
-    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    private final WriteBehindCartStore cartStore;
+    private final IdempotencyKeyStore<OrderDto> orderIdempotencyKeys;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    public OrderDto createOrder(User user, String shippingAddress) {
-        Set<CartItem> cartItems = getCartItemsFromCart(user.getId());
-        Order order = initOrder(user, shippingAddress);
-        Order savedOrder = orderRepository.save(order);
-        savedOrder.setOrderItems(getOrderItemsFromCartItems(cartItems, order));
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItem orderItem : savedOrder.getOrderItems()) {
-            total = total.add(orderItem.getPrice());
+    public OrderDto createOrder(Long userId, String shippingAddress, String idempotencyKey) {
+        cartStore.flush(userId);
+        if (idempotencyKey == null) {
+            return transactionTemplate.execute(status -> placeOrder(userId, shippingAddress));
         }
-        savedOrder.setTotal(total);
-        orderRepository.save(savedOrder);
-        return orderMapper.toDto(savedOrder);
+        return orderIdempotencyKeys.execute(userId + ":" + idempotencyKey, () ->
+                transactionTemplate.execute(status -> placeOrder(userId, shippingAddress)));
     }
 
     @Override
-    public List<OrderDto> findAllOrders(User user) {
-        List<Order> listOrders = orderRepository.getAllByUser(user);
+    public List<OrderDto> findAllOrders(Long userId) {
+        List<Order> listOrders = orderRepository.getAllByUserId(userId);
         return listOrders.stream()
                 .map(orderMapper::toDto)
                 .toList();
@@ -68,7 +70,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public List<OrderItemDto> getItemsListFromOrder(User user, Long orderId) {
+    public List<OrderItemDto> getItemsListFromOrder(UserPrincipal user, Long orderId) {
         Order order = getOrderById(orderId);
         checkAccess(user, order);
         List<OrderItem> orderItems = orderItemRepository.getAllByOrder(order);
@@ -78,7 +80,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public OrderItemDto getItemFromOrder(User user, Long orderId, Long itemId) {
+    public OrderItemDto getItemFromOrder(UserPrincipal user, Long orderId, Long itemId) {
         Order order = getOrderById(orderId);
         checkAccess(user, order);
         OrderItem orderItem = orderItemRepository.findById(itemId).orElseThrow(() ->
@@ -89,9 +91,26 @@ public class OrderServiceImpl implements OrderService {
         return orderItemMapper.toDto(orderItem);
     }
 
-    private void checkAccess(User user, Order order) {
-        Role roleAdmin = roleRepository.findRoleByName(Role.RoleName.ROLE_ADMIN).get();
-        if (!(user.getRoles().contains(roleAdmin) || order.getUser().equals(user))) {
+    private OrderDto placeOrder(Long userId, String shippingAddress) {
+        ShoppingCartVersion shoppingCart = getShoppingCartByUserId(userId);
+        Long shoppingCartId = shoppingCart.getId();
+        if (cartRepository.incrementVersion(shoppingCartId, shoppingCart.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(ShoppingCart.class, shoppingCartId);
+        }
+        Order order = orderRepository.save(
+                initOrder(userRepository.getReferenceById(userId), shippingAddress));
+        if (orderItemRepository.insertFromShoppingCart(order.getId(), shoppingCartId) == 0) {
+            throw new RuntimeException("Cart is empty");
+        }
+        order.setTotal(orderItemRepository.getTotalByOrderId(order.getId()));
+        cartItemRepository.deleteAllByShoppingCartId(shoppingCartId);
+        order.setOrderItems(new HashSet<>(orderItemRepository.getAllByOrder(order)));
+        return orderMapper.toDto(order);
+    }
+
+    private void checkAccess(UserPrincipal user, Order order) {
+        if (!(user.hasRole(Role.RoleName.ROLE_ADMIN)
+                || order.getUser().getId().equals(user.getId()))) {
             throw new EntityNotFoundException("Can't find order with id " + order.getId());
         }
     }
@@ -106,41 +125,14 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
-    private Set<OrderItem> getOrderItemsFromCartItems(Set<CartItem> cartItems, Order order) {
-        return cartItems.stream()
-                .map(this::convertToOrderItem)
-                .peek(orderItem -> orderItem.setOrder(order))
-                .map(orderItemRepository::save)
-                .collect(Collectors.toSet());
-    }
-
-    private Set<CartItem> getCartItemsFromCart(Long id) {
-        ShoppingCart shoppingCart = getShoppingCartById(id);
-        Set<CartItem> cartItems = shoppingCart.getCartItems();
-        if (cartItems.size() == 0) {
-            throw new RuntimeException("Cart is empty");
-        }
-        cartItemRepository.deleteAll(shoppingCart.getCartItems());
-        return cartItems;
-    }
-
     private Order getOrderById(Long id) {
         return orderRepository.findById(id).orElseThrow(() ->
                 new EntityNotFoundException("Can't find order with id " + id));
     }
 
-    private ShoppingCart getShoppingCartById(Long id) {
-        return cartRepository.findShoppingCartByUserId(id)
+    private ShoppingCartVersion getShoppingCartByUserId(Long id) {
+        return cartRepository.findVersionByUserId(id)
                 .orElseThrow(() ->
                         new EntityNotFoundException("Can't find cart for user with id " + id));
     }
-
-    private OrderItem convertToOrderItem(CartItem cartItem) {
-        OrderItem orderItem = new OrderItem();
-        orderItem.setBook(cartItem.getBook());
-        orderItem.setQuantity(cartItem.getQuantity());
-        orderItem.setPrice(cartItem.getBook().getPrice()
-                .multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-        return orderItem;
-    }
 }
@@ -0,0 +1,69 @@
+package mate.academy.intro.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyKeyStoreTest {
+    private static final String KEY = "12:checkout";
+    private final IdempotencyKeyStore<String> store = new IdempotencyKeyStore<>(10);
+
+    @Test
+    @DisplayName("Duplicate request waiting on a failed action gets the original error")
+    public void execute_DuplicateWhileActionFailsWithError_RethrowOriginalError()
+            throws Exception {
+        Error failure = new StackOverflowError("action failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                store.execute(KEY, () -> {
+                    started.countDown();
+                    await(release);
+                    throw failure;
+                }));
+        started.await(5, TimeUnit.SECONDS);
+
+        AtomicReference<Throwable> duplicateFailure = new AtomicReference<>();
+        Thread duplicate = new Thread(() -> {
+            try {
+                store.execute(KEY, () -> "unexpected");
+            } catch (Throwable e) {
+                duplicateFailure.set(e);
+            }
+        });
+        duplicate.start();
+        while (duplicate.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        duplicate.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(failure, duplicateFailure.get());
+        Exception exception = assertThrows(Exception.class, first::join);
+        assertEquals(failure, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Failed action is not remembered, the retry runs it again")
+    public void execute_RetryAfterFailure_RunActionAgain() {
+        assertThrows(IllegalStateException.class, () -> store.execute(KEY, () -> {
+            throw new IllegalStateException("Cart is empty");
+        }));
+
+        assertEquals("order", store.execute(KEY, () -> "order"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
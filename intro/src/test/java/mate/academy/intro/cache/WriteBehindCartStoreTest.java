@@ -0,0 +1,171 @@
+package mate.academy.intro.cache;
+
+import mate.academy.intro.dto.cart.CartItemDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriteBehindCartStoreTest {
+    private static final Long USER_ID = 15L;
+    private static final Long OTHER_USER_ID = 16L;
+    private static final Long ITEM_ID = 9L;
+    private static final Long OTHER_ITEM_ID = 10L;
+    private Map<Long, Integer> database;
+    private List<Map<Long, Integer>> writes;
+    private boolean databaseDown;
+    private Runnable duringWrite;
+    private WriteBehindCartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        database = new HashMap<>(Map.of(ITEM_ID, 1, OTHER_ITEM_ID, 1));
+        writes = new ArrayList<>();
+        databaseDown = false;
+        duringWrite = () -> { };
+        cartStore = newStore(100);
+    }
+
+    @Test
+    @DisplayName("Repeated quantity changes are coalesced into one write")
+    public void flushAll_RepeatedUpdates_WriteLatestQuantityOnce() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        assertEquals(Optional.of(getItem(ITEM_ID, 3)), cartStore.setQuantity(USER_ID, ITEM_ID, 3));
+        assertEquals(Optional.of(getItem(ITEM_ID, 4)), cartStore.setQuantity(USER_ID, ITEM_ID, 4));
+
+        cartStore.flushAll();
+        assertEquals(List.of(Map.of(ITEM_ID, 4)), writes);
+        assertEquals(4, database.get(ITEM_ID));
+        assertEquals(Map.of(), cartStore.getPendingQuantities(USER_ID));
+    }
+
+    @Test
+    @DisplayName("Crash before flush loses only buffered changes, flushed ones survive")
+    public void newStore_CrashBeforeFlush_KeepFlushedQuantities() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        cartStore.flushAll();
+        cartStore.put(USER_ID, getItem(OTHER_ITEM_ID, 5));
+
+        cartStore = newStore(100);
+        assertEquals(Map.of(ITEM_ID, 2, OTHER_ITEM_ID, 1), database);
+        assertEquals(Map.of(), cartStore.getPendingQuantities(USER_ID));
+    }
+
+    @Test
+    @DisplayName("Failed flush keeps changes pending and newer changes win on retry")
+    public void flushAll_DatabaseDown_RetryWithLatestQuantity() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        databaseDown = true;
+
+        assertThrows(DataAccessResourceFailureException.class, () -> cartStore.flushAll());
+        assertEquals(Map.of(ITEM_ID, 2), cartStore.getPendingQuantities(USER_ID));
+
+        cartStore.setQuantity(USER_ID, ITEM_ID, 7);
+        databaseDown = false;
+        cartStore.flushAll();
+        assertEquals(7, database.get(ITEM_ID));
+    }
+
+    @Test
+    @DisplayName("Exceeding cart capacity writes the least recently used cart")
+    public void put_CapacityExceeded_FlushEldestCart() {
+        cartStore = newStore(1);
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        cartStore.put(OTHER_USER_ID, getItem(OTHER_ITEM_ID, 3));
+
+        assertEquals(List.of(Map.of(ITEM_ID, 2)), writes);
+        assertEquals(Map.of(), cartStore.getPendingQuantities(USER_ID));
+        assertEquals(Map.of(OTHER_ITEM_ID, 3), cartStore.getPendingQuantities(OTHER_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Failed eviction doesn't fail the put, evicted cart stays pending")
+    public void put_CapacityExceededDatabaseDown_KeepBothCarts() {
+        cartStore = newStore(1);
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        databaseDown = true;
+
+        assertEquals(getItem(OTHER_ITEM_ID, 3),
+                cartStore.put(OTHER_USER_ID, getItem(OTHER_ITEM_ID, 3)));
+        assertEquals(Map.of(ITEM_ID, 2), cartStore.getPendingQuantities(USER_ID));
+        assertEquals(Map.of(OTHER_ITEM_ID, 3), cartStore.getPendingQuantities(OTHER_USER_ID));
+
+        databaseDown = false;
+        cartStore.flushAll();
+        assertEquals(Map.of(ITEM_ID, 2, OTHER_ITEM_ID, 3), database);
+    }
+
+    @Test
+    @DisplayName("Write runs outside the store lock, changes made meanwhile win over a failed write")
+    public void flushAll_ChangedDuringFailedWrite_KeepNewerQuantity() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        databaseDown = true;
+        duringWrite = () -> {
+            Map<Long, Integer> pending = CompletableFuture
+                    .supplyAsync(() -> {
+                        cartStore.setQuantity(USER_ID, ITEM_ID, 9);
+                        return cartStore.getPendingQuantities(USER_ID);
+                    })
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+            assertEquals(Map.of(ITEM_ID, 9), pending);
+        };
+
+        assertThrows(DataAccessResourceFailureException.class, () -> cartStore.flushAll());
+        assertEquals(Map.of(ITEM_ID, 9), cartStore.getPendingQuantities(USER_ID));
+
+        duringWrite = () -> { };
+        databaseDown = false;
+        cartStore.flushAll();
+        assertEquals(9, database.get(ITEM_ID));
+    }
+
+    @Test
+    @DisplayName("Flush by user writes only that user's cart")
+    public void flush_UserId_WriteOnlyUserCart() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        cartStore.put(OTHER_USER_ID, getItem(OTHER_ITEM_ID, 3));
+
+        cartStore.flush(USER_ID);
+        assertEquals(List.of(Map.of(ITEM_ID, 2)), writes);
+        assertEquals(Map.of(OTHER_ITEM_ID, 3), cartStore.getPendingQuantities(OTHER_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Removed item is not written")
+    public void remove_PendingItem_NotWritten() {
+        cartStore.put(USER_ID, getItem(ITEM_ID, 2));
+        cartStore.remove(USER_ID, ITEM_ID);
+
+        cartStore.flushAll();
+        assertEquals(1, database.get(ITEM_ID));
+        assertEquals(Optional.empty(), cartStore.setQuantity(USER_ID, ITEM_ID, 3));
+    }
+
+    private WriteBehindCartStore newStore(int maxCarts) {
+        return new WriteBehindCartStore(quantities -> {
+            duringWrite.run();
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Database is down");
+            }
+            if (!quantities.isEmpty()) {
+                writes.add(Map.copyOf(quantities));
+                database.putAll(quantities);
+            }
+        }, true, maxCarts, 1);
+    }
+
+    private CartItemDto getItem(Long id, int quantity) {
+        return new CartItemDto(id, 5L, "Necronomicon", quantity, null);
+    }
+}
@@ -2,9 +2,12 @@ package mate.academy.intro.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
+import mate.academy.intro.dto.cache.CacheStatsDto;
 import mate.academy.intro.dto.user.UserLoginRequestDto;
 import mate.academy.intro.dto.user.UserRegistrationRequestDto;
 import mate.academy.intro.dto.user.UserResponseDto;
+import mate.academy.intro.repository.user.UserRepository;
+import mate.academy.intro.security.JwtUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.test.context.jdbc.Sql;
@@ -26,6 +30,7 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,7 +39,13 @@ class AuthenticationControllerTest {
     protected static MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
     private static final String EMAIL = "handsome_bob@mail.com";
+    private static final String ADMIN_EMAIL = "admin@mail.com";
+    private static final Long USER_ID = 1L;
     private static final String PASSWORD = "123456789";
     private static final String FIRST_NAME = "Tom";
     private static final String LAST_NAME = "Hardy";
@@ -134,4 +145,38 @@ class AuthenticationControllerTest {
         Assertions.assertNotNull(actual.getId());
         EqualsBuilder.reflectionEquals(expected, actual, "id");
     }
+
+    @Test
+    @Sql(
+            scripts = "classpath:database/users/add-default-user-and-admin.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @DisplayName("Repeated request with the same token skips user lookup until user is deleted")
+    public void authenticate_SameToken_PrincipalCachedUntilUserDeleted() throws Exception {
+        String token = "Bearer " + jwtUtil.generateToken(EMAIL);
+        String adminToken = "Bearer " + jwtUtil.generateToken(ADMIN_EMAIL);
+        mockMvc.perform(get("/orders").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        CacheStatsDto before = getPrincipalCacheStats(adminToken);
+
+        mockMvc.perform(get("/orders").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        CacheStatsDto after = getPrincipalCacheStats(adminToken);
+        Assertions.assertEquals(before.getHits() + 2, after.getHits());
+        Assertions.assertEquals(before.getMisses(), after.getMisses());
+
+        userRepository.deleteById(USER_ID);
+        Exception exception = Assertions.assertThrows(RuntimeException.class, () ->
+                mockMvc.perform(get("/orders").header(HttpHeaders.AUTHORIZATION, token)));
+        Assertions.assertEquals("Can't find user by email", exception.getMessage());
+    }
+
+    private CacheStatsDto getPrincipalCacheStats(String adminToken) throws Exception {
+        MvcResult result = mockMvc.perform(get("/auth/cache/stats")
+                        .header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(),
+                CacheStatsDto.class);
+    }
 }
@@ -1,18 +1,31 @@
 package mate.academy.intro.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.servlet.ServletException;
 import lombok.SneakyThrows;
+import mate.academy.intro.dto.book.BookCursorPageDto;
 import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.book.BookFacetedSearchDto;
+import mate.academy.intro.dto.book.BookImportResultDto;
+import mate.academy.intro.dto.book.BookLookupDto;
+import mate.academy.intro.dto.book.CategoryFacetDto;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.book.PriceFacetDto;
+import mate.academy.intro.dto.cache.CacheStatsDto;
+import mate.academy.intro.service.CategoryService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -26,10 +39,12 @@ import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -38,6 +53,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -45,6 +61,10 @@ class BookControllerTest {
     protected static MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategoryService categoryService;
     private static final String TITLE = "Leviathan";
     private static final String AUTHOR = "Thomas Hobbes";
     private static final String ISBN = "978-1439297254";
@@ -108,6 +128,11 @@ class BookControllerTest {
         teardown(dataSource);
     }
 
+    @BeforeEach
+    void recountCategoryBooks() {
+        categoryService.recountBooks();
+    }
+
     @SneakyThrows
     static void teardown(DataSource dataSource) {
         try (Connection connection = dataSource.getConnection()) {
@@ -157,6 +182,328 @@ class BookControllerTest {
         Assertions.assertEquals(booksCatalog, Arrays.stream(actual).toList());
     }
 
+    @WithMockUser
+    @Test
+    @DisplayName("Export all books as newline-delimited JSON")
+    public void exportAll_GivenBooksInCatalog_ReturnOneBookPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        List<BookDto> actual = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            actual.add(objectMapper.readValue(line, BookDto.class));
+        }
+        Assertions.assertEquals(booksCatalog, actual);
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Export books modified since the future, nothing is exported")
+    public void exportAll_ModifiedSinceFuture_ReturnEmptyBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/export")
+                        .param("modifiedSince", LocalDateTime.now().plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("", result.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/add-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/books/delete-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Export books modified since a book was deleted, deleted book is a tombstone")
+    public void exportAll_BookDeletedSince_ReturnTombstone() throws Exception {
+        LocalDateTime modifiedSince = LocalDateTime.now();
+        mockMvc.perform(delete("/books/4"))
+                .andExpect(status().isNoContent());
+
+        MvcResult result = mockMvc.perform(get("/books/export")
+                        .param("modifiedSince", modifiedSince.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Assertions.assertEquals("{\"id\":4,\"deleted\":true}",
+                result.getResponse().getContentAsString().trim());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @Sql(
+            scripts = "classpath:database/categories/add-pulp-fiction-category.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = {
+                    "classpath:database/books/delete-imported-leviathan-book.sql",
+                    "classpath:database/categories/delete-pulp-fiction-category.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Import books from CSV, invalid rows are reported by line")
+    public void importCsv_ValidAndInvalidRows_InsertValidAndReportInvalid() throws Exception {
+        String csv = """
+                title,author,isbn,price,description,coverImage,categories
+                Leviathan,Thomas Hobbes,978-1439297254,148.8,"Early modern, political",Some printmaking,4
+                No Price,Somebody,some isbn,,,,
+                Unknown Category,Somebody,other isbn,10,,,42
+                """;
+
+        MvcResult result = mockMvc.perform(post("/books/import")
+                        .content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookImportResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookImportResultDto.class);
+        Assertions.assertEquals(1, actual.getInserted());
+        Assertions.assertEquals(0, actual.getUpdated());
+        Assertions.assertEquals(2, actual.getFailed());
+        Assertions.assertEquals(List.of(3L, 4L), actual.getErrors().stream()
+                .map(error -> error.getLine())
+                .toList());
+        Assertions.assertEquals("price must not be null", actual.getErrors().get(0).getMessage());
+        Assertions.assertEquals("Can't find category with id 42",
+                actual.getErrors().get(1).getMessage());
+
+        MvcResult books = mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookDto imported = Arrays.stream(objectMapper.readValue(
+                        books.getResponse().getContentAsByteArray(), BookDto[].class))
+                .filter(book -> ISBN.equals(book.getIsbn()))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals("Early modern, political", imported.getDescription());
+        Assertions.assertEquals(new HashSet<>(List.of(4L)), imported.getCategoriesId());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/delete-imported-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Import books from CSV, row rejected by database fails alone")
+    public void importCsv_RowTooLongForDatabase_InsertOtherRowsAndReportLine() throws Exception {
+        String csv = """
+                title,author,isbn,price,description,coverImage,categories
+                Leviathan,Thomas Hobbes,978-1439297254,148.8,,,
+                Too Long,Somebody,too long isbn,10,%s,,
+                """.formatted("a".repeat(256));
+
+        MvcResult result = mockMvc.perform(post("/books/import")
+                        .content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookImportResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookImportResultDto.class);
+        Assertions.assertEquals(1, actual.getInserted());
+        Assertions.assertEquals(1, actual.getFailed());
+        Assertions.assertEquals(List.of(3L), actual.getErrors().stream()
+                .map(error -> error.getLine())
+                .toList());
+
+        MvcResult books = mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Assertions.assertTrue(Arrays.stream(objectMapper.readValue(
+                        books.getResponse().getContentAsByteArray(), BookDto[].class))
+                .anyMatch(book -> ISBN.equals(book.getIsbn())));
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/add-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/books/delete-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Import books from JSON lines, existing isbn is updated")
+    public void importJsonLines_ExistingIsbn_UpdateBook() throws Exception {
+        CreateBookRequestDto requestDto = getBookRequestDto().setPrice(BigDecimal.valueOf(99.9));
+        String jsonLines = objectMapper.writeValueAsString(requestDto) + "\n{not a book}\n";
+
+        MvcResult result = mockMvc.perform(post("/books/import")
+                        .content(jsonLines)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookImportResultDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookImportResultDto.class);
+        Assertions.assertEquals(0, actual.getInserted());
+        Assertions.assertEquals(1, actual.getUpdated());
+        Assertions.assertEquals(1, actual.getFailed());
+        Assertions.assertEquals(2L, actual.getErrors().get(0).getLine());
+
+        MvcResult book = mockMvc.perform(get("/books/4"))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookDto updated = objectMapper.readValue(
+                book.getResponse().getContentAsString(), BookDto.class);
+        Assertions.assertEquals(0, BigDecimal.valueOf(99.9).compareTo(updated.getPrice()));
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by ids in request order, missing ids are reported")
+    public void getAllById_SomeIdsMissing_ReturnFoundInRequestOrder() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        MvcResult result = mockMvc.perform(get("/books")
+                        .param("ids", "3", "100", "1", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookLookupDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookLookupDto.class);
+        Assertions.assertEquals(List.of(booksCatalog.get(2), booksCatalog.get(0),
+                booksCatalog.get(1)), actual.getBooks());
+        Assertions.assertEquals(List.of(100L), actual.getMissingIds());
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= 2);
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by more than 200 ids is rejected")
+    public void getAllById_TooManyIds_ReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/books")
+                        .param("ids", LongStream.rangeClosed(1, 201)
+                                .mapToObj(String::valueOf)
+                                .toArray(String[]::new))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get cached book with matching ETag, 304 without touching the db")
+    public void getBookById_MatchingETag_NotModified() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String eTag = mockMvc.perform(get("/books/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(eTag);
+
+        statistics.clear();
+        MvcResult result = mockMvc.perform(get("/books/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        Assertions.assertEquals("", result.getResponse().getContentAsString());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        mockMvc.perform(get("/books/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get page of books with matching ETag, 304 until a book on the page changes")
+    public void getAll_MatchingETag_NotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/books")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/books")
+                        .param("size", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/books")
+                        .param("size", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get all books from db, statement count doesn't depend on page size")
+    public void getAll_DifferentPageSizes_SameStatementCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/books")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        long singleBookPageStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(get("/books")
+                        .param("size", "3")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        long threeBooksPageStatements = statistics.getPrepareStatementCount();
+
+        Assertions.assertEquals(singleBookPageStatements, threeBooksPageStatements);
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get all books from db page by page using cursor")
+    public void getAllByCursor_GivenBooksInCatalog_ReturnAllBooksInTwoPages() throws Exception {
+        MvcResult firstResult = mockMvc.perform(get("/books/cursor")
+                        .param("size", "2")
+                        .param("sort", "title,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookCursorPageDto firstPage = objectMapper
+                .readValue(firstResult.getResponse().getContentAsByteArray(), BookCursorPageDto.class);
+        Assertions.assertEquals(List.of(booksCatalog.get(0), booksCatalog.get(2)), firstPage.getBooks());
+        Assertions.assertNotNull(firstPage.getNextCursor());
+
+        MvcResult secondResult = mockMvc.perform(get("/books/cursor")
+                        .param("size", "2")
+                        .param("cursor", firstPage.getNextCursor())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookCursorPageDto secondPage = objectMapper
+                .readValue(secondResult.getResponse().getContentAsByteArray(), BookCursorPageDto.class);
+        Assertions.assertEquals(List.of(booksCatalog.get(1)), secondPage.getBooks());
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by malformed cursor is rejected")
+    public void getAllByCursor_MalformedCursor_ReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/books/cursor")
+                        .param("cursor", "not a cursor!")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by cursor sorted by unsupported property is rejected")
+    public void getAllByCursor_UnsupportedSort_ReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/books/cursor")
+                        .param("sort", "coverImage,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @WithMockUser
     @Test
     @DisplayName("Get book from db by id")
@@ -352,6 +699,90 @@ class BookControllerTest {
         Assertions.assertEquals(0, booksAuthor.length);
     }
 
+    @WithMockUser
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/add-horror-and-detective-categories-to-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/books/delete-horror-and-detective-categories.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Search books of a category with facets, category counts ignore the category filter")
+    public void searchWithFacets_ByCategory_ReturnBooksAndFacetCounts() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("facets", "true")
+                        .param("category", "12")
+                        .param("sort", "id"))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookFacetedSearchDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsByteArray(), BookFacetedSearchDto.class);
+
+        Assertions.assertEquals(List.of(2L, 3L), actual.getBooks().stream()
+                .map(BookDto::getId)
+                .toList());
+        Assertions.assertEquals(List.of("Detective:2", "Horror:2"),
+                actual.getCategories().stream()
+                        .map(facet -> facet.getName() + ":" + facet.getCount())
+                        .toList());
+        Assertions.assertEquals(List.of(0L, 0L, 2L, 0L, 0L), actual.getPrices().stream()
+                .map(PriceFacetDto::getCount)
+                .toList());
+    }
+
+    @WithMockUser
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/add-horror-and-detective-categories-to-books.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/books/delete-horror-and-detective-categories.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Search books by title, isbn prefix and price with facets, price counts ignore the price filter")
+    public void searchWithFacets_ByTitleIsbnAndPrice_ReturnBooksAndFacetCounts() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/search")
+                        .param("facets", "true")
+                        .param("title", "The Raven", "The Name of the Rose")
+                        .param("isbn", "978-0")
+                        .param("minPrice", "190"))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookFacetedSearchDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsByteArray(), BookFacetedSearchDto.class);
+
+        Assertions.assertEquals(List.of(3L), actual.getBooks().stream()
+                .map(BookDto::getId)
+                .toList());
+        Assertions.assertEquals(List.of(12L), actual.getCategories().stream()
+                .map(CategoryFacetDto::getId)
+                .toList());
+        Assertions.assertEquals(List.of(0L, 0L, 1L, 0L, 0L), actual.getPrices().stream()
+                .map(PriceFacetDto::getCount)
+                .toList());
+    }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("Get book cache statistics, repeated read is a cache hit")
+    public void getCacheStats_RepeatedRead_HitsIncreased() throws Exception {
+        mockMvc.perform(get("/books/1")).andExpect(status().isOk());
+        CacheStatsDto before = objectMapper.readValue(mockMvc.perform(get("/books/cache/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), CacheStatsDto.class);
+
+        mockMvc.perform(get("/books/1")).andExpect(status().isOk());
+        CacheStatsDto after = objectMapper.readValue(mockMvc.perform(get("/books/cache/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), CacheStatsDto.class);
+
+        Assertions.assertEquals(before.getHits() + 1, after.getHits());
+        Assertions.assertEquals(before.getMisses(), after.getMisses());
+    }
+
     private BookDto getBookDto() {
         return new BookDto()
                 .setTitle(TITLE)
@@ -3,15 +3,21 @@ package mate.academy.intro.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
 import mate.academy.intro.dto.book.BookDto;
+import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.category.CategoryBooksCursorPageDto;
 import mate.academy.intro.dto.category.CategoryDto;
+import mate.academy.intro.service.CategoryService;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -43,6 +49,8 @@ class CategoryControllerTest {
     protected static MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CategoryService categoryService;
     private static final List<CategoryDto> categoriesCatalog = new ArrayList<>();
     private static final List<BookDto> booksCatalog = new ArrayList<>();
 
@@ -72,6 +80,11 @@ class CategoryControllerTest {
         teardown(dataSource);
     }
 
+    @BeforeEach
+    void recountCategoryBooks() {
+        categoryService.recountBooks();
+    }
+
     @SneakyThrows
     static void teardown(DataSource dataSource) {
         try (Connection connection = dataSource.getConnection()) {
@@ -87,15 +100,18 @@ class CategoryControllerTest {
         categoriesCatalog.add(new CategoryDto()
                 .setId(1L)
                 .setName("Horror")
-                .setDescription("Something scary"));
+                .setDescription("Something scary")
+                .setBookCount(2L));
         categoriesCatalog.add(new CategoryDto()
                 .setId(2L)
                 .setName("Detective")
-                .setDescription("Something enigmatic"));
+                .setDescription("Something enigmatic")
+                .setBookCount(3L));
         categoriesCatalog.add(new CategoryDto()
                 .setId(3L)
                 .setName("Fantasy")
-                .setDescription("Something faibled"));
+                .setDescription("Something faibled")
+                .setBookCount(2L));
     }
 
     private static void booksCatalogInit() {
@@ -175,6 +191,16 @@ class CategoryControllerTest {
         Assertions.assertEquals(categoriesCatalog, Arrays.stream(actual).toList());
     }
 
+    @WithMockUser
+    @Test
+    @DisplayName("Get all categories sorted by unknown property is rejected")
+    public void getAll_UnknownSortProperty_ReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/categories")
+                        .param("sort", "publisher,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @WithMockUser
     @Test
     @DisplayName("Get category from db by id")
@@ -261,6 +287,39 @@ class CategoryControllerTest {
         Assertions.assertEquals(categoriesBefore.length, categoriesAfter.length);
     }
 
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @Sql(
+            scripts = "classpath:database/categories/add-pulp-fiction-category.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/categories/delete-category-after-updating.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Get category with matching ETag, 304 until the category is updated")
+    public void getCategoryById_MatchingETag_NotModifiedUntilUpdated() throws Exception {
+        String eTag = mockMvc.perform(get("/categories/4"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/categories/4")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        CategoryDto requestDto = new CategoryDto()
+                .setName("Non Fiction")
+                .setDescription("Science books");
+        mockMvc.perform(put("/categories/4")
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/categories/4")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     @Test
     @Sql(
@@ -331,6 +390,65 @@ class CategoryControllerTest {
         Assertions.assertEquals(expectSizeFantasy, fantasyActual.length);
     }
 
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by category id page by page sorted by title")
+    public void getBookByCategoryId_PageSortedByTitle_ReturnPages() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/categories/2/books")
+                        .param("size", "2")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult secondPage = mockMvc.perform(get("/categories/2/books")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookDtoWithoutCategoriesIds[] first = objectMapper.readValue(
+                firstPage.getResponse().getContentAsByteArray(), BookDtoWithoutCategoriesIds[].class);
+        BookDtoWithoutCategoriesIds[] second = objectMapper.readValue(
+                secondPage.getResponse().getContentAsByteArray(), BookDtoWithoutCategoriesIds[].class);
+        Assertions.assertEquals(List.of(4L, 2L), Arrays.stream(first)
+                .map(BookDtoWithoutCategoriesIds::getId)
+                .toList());
+        Assertions.assertEquals(List.of(3L), Arrays.stream(second)
+                .map(BookDtoWithoutCategoriesIds::getId)
+                .toList());
+    }
+
+    @WithMockUser
+    @Test
+    @DisplayName("Get books by category id page by page using cursor")
+    public void getBookByCategoryIdByCursor_SortedByTitle_ReturnAllBooksInTwoPages()
+            throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/categories/2/books/cursor")
+                        .param("size", "2")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andReturn();
+        CategoryBooksCursorPageDto first = objectMapper.readValue(
+                firstPage.getResponse().getContentAsByteArray(), CategoryBooksCursorPageDto.class);
+        Assertions.assertNotNull(first.getNextCursor());
+
+        MvcResult secondPage = mockMvc.perform(get("/categories/2/books/cursor")
+                        .param("size", "2")
+                        .param("cursor", first.getNextCursor()))
+                .andExpect(status().isOk())
+                .andReturn();
+        CategoryBooksCursorPageDto second = objectMapper.readValue(
+                secondPage.getResponse().getContentAsByteArray(), CategoryBooksCursorPageDto.class);
+
+        Assertions.assertEquals(List.of(4L, 2L), first.getBooks().stream()
+                .map(BookDtoWithoutCategoriesIds::getId)
+                .toList());
+        Assertions.assertEquals(List.of(3L), second.getBooks().stream()
+                .map(BookDtoWithoutCategoriesIds::getId)
+                .toList());
+        Assertions.assertNull(second.getNextCursor());
+    }
+
     @WithMockUser
     @Test
     @DisplayName("Get book by invalid category id")
@@ -345,4 +463,34 @@ class CategoryControllerTest {
         Assertions.assertEquals(0, actual.length);
         Assertions.assertEquals(expected, Arrays.stream(actual).toList());
     }
+
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    @Test
+    @DisplayName("Category book count follows book creation and deletion")
+    public void getCategoryById_BookSavedAndDeleted_BookCountChanged() throws Exception {
+        CreateBookRequestDto requestDto = new CreateBookRequestDto()
+                .setTitle("The Shadow over Innsmouth")
+                .setAuthor("Howard Lovecraft")
+                .setIsbn("978-1-5040-6331-4")
+                .setPrice(BigDecimal.valueOf(120.5))
+                .setCategories(Set.of(1L));
+        MvcResult saved = mockMvc.perform(post("/books")
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        BookDto book = objectMapper.readValue(saved.getResponse().getContentAsByteArray(), BookDto.class);
+        Assertions.assertEquals(3L, getCategory(1L).getBookCount());
+
+        mockMvc.perform(delete("/books/" + book.getId()))
+                .andExpect(status().isOk());
+        Assertions.assertEquals(2L, getCategory(1L).getBookCount());
+    }
+
+    private CategoryDto getCategory(Long id) throws Exception {
+        MvcResult result = mockMvc.perform(get("/categories/" + id))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(), CategoryDto.class);
+    }
 }
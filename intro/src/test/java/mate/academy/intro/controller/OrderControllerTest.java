@@ -1,14 +1,21 @@
 package mate.academy.intro.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.servlet.ServletException;
 import lombok.SneakyThrows;
+import mate.academy.intro.dto.cache.CacheStatsDto;
 import mate.academy.intro.dto.order.AddressRequestDto;
 import mate.academy.intro.dto.order.OrderDto;
 import mate.academy.intro.dto.order.OrderItemDto;
 import mate.academy.intro.dto.order.StatusRequestDto;
 import mate.academy.intro.model.Order;
+import mate.academy.intro.model.Role;
 import mate.academy.intro.security.JwtUtil;
+import mate.academy.intro.security.PrincipalCache;
+import mate.academy.intro.security.UserPrincipal;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -52,8 +59,13 @@ class OrderControllerTest {
     private ObjectMapper objectMapper;
     @Autowired
     private JwtUtil jwtUtil;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PrincipalCache principalCache;
     private static final String EMAIL = "handsome_bob@mail.com";
     private static final String ADMIN_EMAIL = "admin@mail.com";
+    private static final String SOME_USER_EMAIL = "some_user@mail.com";
     private static final List<OrderItemDto> ORDER_ITEM_DTOS = new ArrayList<>();
     private static final List<OrderDto> ORDER_DTO_LIST = new ArrayList<>();
     private static final Long ORDER_ID = 1L;
@@ -156,6 +168,137 @@ class OrderControllerTest {
         EqualsBuilder.reflectionEquals(expected, actual, "id", "orderDate");
     }
 
+    @Test
+    @Sql(
+            scripts = {
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql",
+                    "classpath:database/books/add-leviathan-book.sql",
+                    "classpath:database/carts&cartitems/add-deleted-leviathan-cartitem.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = {
+                    "classpath:database/orders&orderItems/clear-orders-and-order_items-tables.sql",
+                    "classpath:database/orders&orderItems/add-two-orders-with-items.sql",
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/books/delete-leviathan-book.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Create order, book deleted after it was added to the cart isn't ordered")
+    public void createOrder_DeletedBookInCart_NotOrdered() throws Exception {
+        String jsonRequest = objectMapper.writeValueAsString(
+                new AddressRequestDto().setShippingAddress("Address"));
+
+        MvcResult result = mockMvc.perform(post("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(EMAIL))
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        OrderDto actual = objectMapper.readValue(result.getResponse().getContentAsByteArray(), OrderDto.class);
+        assertEquals(3, actual.getOrderItems().size());
+        assertEquals(0, new BigDecimal("2881.7").compareTo(actual.getTotal()));
+    }
+
+    @Test
+    @Sql(
+            scripts = {
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = {
+                    "classpath:database/orders&orderItems/clear-orders-and-order_items-tables.sql",
+                    "classpath:database/orders&orderItems/add-two-orders-with-items.sql",
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Create order twice with the same Idempotency-Key, original order is returned")
+    public void createOrder_RepeatedIdempotencyKey_ReturnOriginalOrder() throws Exception {
+        String jsonRequest = objectMapper.writeValueAsString(
+                new AddressRequestDto().setShippingAddress("Address"));
+        String token = "Bearer " + jwtUtil.generateToken(EMAIL);
+
+        MvcResult first = mockMvc.perform(post("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header("Idempotency-Key", "checkout-1")
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult second = mockMvc.perform(post("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header("Idempotency-Key", "checkout-1")
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        OrderDto firstOrder = objectMapper.readValue(first.getResponse().getContentAsByteArray(), OrderDto.class);
+        OrderDto secondOrder = objectMapper.readValue(second.getResponse().getContentAsByteArray(), OrderDto.class);
+        assertEquals(firstOrder.getId(), secondOrder.getId());
+        assertEquals(0, new BigDecimal("2881.7").compareTo(secondOrder.getTotal()));
+    }
+
+    @Test
+    @Sql(
+            scripts = {
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql",
+                    "classpath:database/carts&cartitems/add-cart-with-one-cartitem.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = {
+                    "classpath:database/orders&orderItems/clear-orders-and-order_items-tables.sql",
+                    "classpath:database/orders&orderItems/add-two-orders-with-items.sql",
+                    "classpath:database/carts&cartitems/clear-cart_items-and-shopping_carts-tables.sql",
+                    "classpath:database/carts&cartitems/add-cart-and-three-cartitems.sql"
+            },
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Create order, statement count doesn't depend on cart size")
+    public void createOrder_DifferentCartSizes_SameStatementCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String jsonRequest = objectMapper.writeValueAsString(
+                new AddressRequestDto().setShippingAddress("Address"));
+
+        statistics.clear();
+        mockMvc.perform(post("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(SOME_USER_EMAIL))
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        long oneItemCartStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        MvcResult result = mockMvc.perform(post("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(EMAIL))
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        long threeItemsCartStatements = statistics.getPrepareStatementCount();
+
+        OrderDto actual = objectMapper.readValue(result.getResponse().getContentAsByteArray(), OrderDto.class);
+        assertEquals(3, actual.getOrderItems().size());
+        assertEquals(0, new BigDecimal("2881.7").compareTo(actual.getTotal()));
+        assertEquals(oneItemCartStatements, threeItemsCartStatements);
+    }
+
     @Test
     @DisplayName("Get all orders for user")
     public void getAllOrders_Token_ListOrders() throws Exception {
@@ -171,6 +314,26 @@ class OrderControllerTest {
         Assertions.assertEquals(ORDER_DTO_LIST, actual);
     }
 
+    @Test
+    @DisplayName("Get all orders with self-contained token while they are disabled, user is looked up")
+    public void getAllOrders_SelfContainedTokenDisabled_LookUpUser() throws Exception {
+        UserPrincipal principal = new UserPrincipal(1L, EMAIL, Set.of(Role.RoleName.ROLE_USER));
+        CacheStatsDto before = principalCache.getStats();
+
+        MvcResult result = mockMvc.perform(get("/orders")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(principal))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CacheStatsDto after = principalCache.getStats();
+        List<OrderDto> actual = List.of(objectMapper.readValue(result.getResponse().getContentAsString(), OrderDto[].class));
+        Assertions.assertEquals(ORDER_DTO_LIST, actual);
+        Assertions.assertEquals(before.getHits() + before.getMisses() + 1,
+                after.getHits() + after.getMisses());
+    }
+
     @Test
     @Sql(
             scripts = "classpath:database/orders&orderItems/clear-orders-and-order_items-tables.sql",
@@ -26,6 +26,7 @@ import org.springframework.web.context.WebApplicationContext;
 import org.testcontainers.shaded.org.apache.commons.lang3.builder.EqualsBuilder;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -54,17 +55,20 @@ class ShoppingCartControllerTest {
                 .setId(1L)
                 .setBookId(1L)
                 .setBookTitle("Call of Cthulhu")
-                .setQuantity(4));
+                .setQuantity(4)
+                .setPrice(new BigDecimal("192.8")));
         CART_ITEM_DTOS.add(new CartItemDto()
                 .setId(2L)
                 .setBookId(2L)
                 .setBookTitle("The Raven")
-                .setQuantity(5));
+                .setQuantity(5)
+                .setPrice(new BigDecimal("184.5")));
         CART_ITEM_DTOS.add(new CartItemDto()
                 .setId(3L)
                 .setBookId(3L)
                 .setBookTitle("The Name of the Rose")
-                .setQuantity(6));
+                .setQuantity(6)
+                .setPrice(new BigDecimal("198.0")));
     }
 
     @BeforeAll
@@ -131,7 +135,8 @@ class ShoppingCartControllerTest {
         ShoppingCartResponseDto expected = new ShoppingCartResponseDto()
                 .setId(1L)
                 .setUserId(1L)
-                .setCartItems(new HashSet<>(CART_ITEM_DTOS));
+                .setCartItems(new HashSet<>(CART_ITEM_DTOS))
+                .setTotal(new BigDecimal("2881.7"));
         ShoppingCartResponseDto actual = objectMapper.readValue(result.getResponse().getContentAsByteArray(), ShoppingCartResponseDto.class);
         Assertions.assertNotNull(actual);
         Assertions.assertEquals(expected, actual);
@@ -177,6 +182,48 @@ class ShoppingCartControllerTest {
         EqualsBuilder.reflectionEquals(expected, actual, "id");
     }
 
+    @Test
+    @Sql(
+            scripts = "classpath:database/books/add-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/carts&cartitems/delete-leviathan-cartItem.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @Sql(
+            scripts = "classpath:database/books/delete-leviathan-book.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+    )
+    @DisplayName("Add the same book to cart twice, quantities are merged into one line")
+    public void addBookToCart_SameBookTwice_ReturnMergedCartItemDto() throws Exception {
+        CartItemAddRequestDto requestDto = new CartItemAddRequestDto()
+                .setBookId(4L)
+                .setQuantity(7);
+        String jsonRequest = objectMapper.writeValueAsString(requestDto);
+
+        MvcResult first = mockMvc.perform(post("/cart")
+                        .content(jsonRequest)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult second = mockMvc.perform(post("/cart")
+                        .content(jsonRequest)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer "
+                                + jwtUtil.generateToken(EMAIL))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CartItemDto firstItem = objectMapper.readValue(first.getResponse().getContentAsString(), CartItemDto.class);
+        CartItemDto secondItem = objectMapper.readValue(second.getResponse().getContentAsString(), CartItemDto.class);
+        Assertions.assertEquals(firstItem.getId(), secondItem.getId());
+        Assertions.assertEquals("Leviathan", secondItem.getBookTitle());
+        Assertions.assertEquals(14, secondItem.getQuantity());
+    }
+
     @Test
     @Sql(
             scripts = "classpath:database/books/add-leviathan-book.sql",
@@ -0,0 +1,151 @@
+package mate.academy.intro.repository;
+
+import lombok.SneakyThrows;
+import mate.academy.intro.dto.book.BookSearchParameters;
+import mate.academy.intro.model.Order;
+import mate.academy.intro.repository.book.BookExportRow;
+import mate.academy.intro.repository.book.BookRepository;
+import mate.academy.intro.repository.book.BookSpecificationBuilder;
+import mate.academy.intro.repository.order.OrderRepository;
+import mate.academy.intro.repository.orderitem.OrderItemRepository;
+import mate.academy.intro.repository.shoppingcart.ShoppingCartRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "mate.academy.intro.repository.QueryPlanTest$CapturingStatementInspector")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final LocalDateTime MODIFIED_SINCE = LocalDateTime.of(2100, 1, 1, 0, 0);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private BookSpecificationBuilder bookSpecificationBuilder;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @BeforeAll
+    void beforeAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+        executeScript(dataSource, "database/query-plan/add-query-plan-rows.sql");
+    }
+
+    @AfterAll
+    void afterAll(@Autowired DataSource dataSource) {
+        teardown(dataSource);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    @DisplayName("Hot repository query plan uses matching index")
+    public void explain_HotRepositoryQuery_IndexIsKey(String index, Runnable query,
+                                                      Object[] parameters) {
+        STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+        String sql = STATEMENTS.get(0);
+
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+
+        Assertions.assertTrue(plan.stream().anyMatch(row -> index.equals(row.get("key"))),
+                "Expected " + index + " as key of " + sql + ": " + plan);
+    }
+
+    private Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("idx_books_is_deleted_title",
+                        (Runnable) () -> bookRepository.findAll(bookSpecificationBuilder.build(
+                                new BookSearchParameters()
+                                        .setTitle(new String[]{"Plan book 1", "Plan book 2"}))),
+                        new Object[]{"Plan book 1", "Plan book 2"}),
+                Arguments.of("idx_books_is_deleted_author",
+                        (Runnable) () -> bookRepository.findAll(bookSpecificationBuilder.build(
+                                new BookSearchParameters()
+                                        .setAuthor(new String[]{"Plan author 7"}))),
+                        new Object[]{"Plan author 7"}),
+                Arguments.of("idx_books_categories_category_id_book_id",
+                        (Runnable) () -> bookRepository.findAll(bookSpecificationBuilder.build(
+                                new BookSearchParameters()
+                                        .setCategory(new String[]{"1001"}))),
+                        new Object[]{1001L}),
+                Arguments.of("idx_books_categories_book_id_category_id",
+                        (Runnable) () -> bookRepository.findCategoryIdsByBookIds(
+                                List.of(1001L, 1002L)),
+                        new Object[]{1001L, 1002L}),
+                Arguments.of("idx_books_updated_at_id",
+                        (Runnable) () -> {
+                            try (Stream<BookExportRow> rows = bookRepository
+                                    .streamAllModifiedSince(MODIFIED_SINCE)) {
+                                rows.findAny();
+                            }
+                        },
+                        new Object[]{MODIFIED_SINCE}),
+                Arguments.of("idx_shopping_carts_user_id_is_deleted",
+                        (Runnable) () -> shoppingCartRepository.findIdByUserId(1001L),
+                        new Object[]{1001L}),
+                Arguments.of("idx_cart_items_shopping_cart_id_is_deleted",
+                        (Runnable) () -> orderItemRepository.insertFromShoppingCart(
+                                1001L, 1001L),
+                        new Object[]{1001L, 1001L}),
+                Arguments.of("idx_orders_user_id_is_deleted",
+                        (Runnable) () -> orderRepository.getAllByUserId(1001L),
+                        new Object[]{1001L}),
+                Arguments.of("idx_order_items_order_id_is_deleted",
+                        (Runnable) () -> orderItemRepository.getAllByOrder(
+                                new Order().setId(1001L)),
+                        new Object[]{1001L})
+        );
+    }
+
+    static void teardown(DataSource dataSource) {
+        executeScript(dataSource, "database/query-plan/clear-query-plan-rows.sql");
+    }
+
+    @SneakyThrows
+    static void executeScript(DataSource dataSource, String script) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+        }
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
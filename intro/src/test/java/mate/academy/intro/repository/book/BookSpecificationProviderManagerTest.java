@@ -0,0 +1,58 @@
+package mate.academy.intro.repository.book;
+
+import mate.academy.intro.dto.book.BookSearchParameters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookSpecificationProviderManagerTest {
+    @Test
+    @DisplayName("Get provider by key")
+    public void getSpecificationProvider_KnownKey_ReturnProvider() {
+        TitleSpecificationProvider titleProvider = new TitleSpecificationProvider();
+        BookSpecificationProviderManager manager = new BookSpecificationProviderManager(
+                List.of(titleProvider, new AuthorSpecificationProvider()));
+
+        assertSame(titleProvider, manager.getSpecificationProvider("title"));
+    }
+
+    @Test
+    @DisplayName("Get provider by unknown key, expect exception")
+    public void getSpecificationProvider_UnknownKey_ThrowException() {
+        BookSpecificationProviderManager manager = new BookSpecificationProviderManager(
+                List.of(new TitleSpecificationProvider()));
+
+        assertThrows(RuntimeException.class, () -> manager.getSpecificationProvider("author"));
+    }
+
+    @Test
+    @DisplayName("Two providers with the same key fail at construction")
+    public void constructor_DuplicateKeys_ThrowException() {
+        Exception exception = assertThrows(IllegalStateException.class,
+                () -> new BookSpecificationProviderManager(List.of(
+                        new TitleSpecificationProvider(), new TitleSpecificationProvider())));
+        assertEquals("Duplicate book specification provider key title in "
+                + "TitleSpecificationProvider and TitleSpecificationProvider",
+                exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Search parameters carry only the filters that are set")
+    public void toSpecificationParams_SomeFiltersSet_ReturnOnlyThoseKeys() {
+        BookSearchParameters parameters = new BookSearchParameters()
+                .setTitle(new String[]{"Leviathan"})
+                .setAuthor(new String[0])
+                .setMaxPrice(BigDecimal.valueOf(100));
+
+        assertThat(parameters.toSpecificationParams())
+                .containsOnlyKeys("title", "price");
+        assertThat(parameters.toSpecificationParams().get("price"))
+                .containsExactly("", "100");
+    }
+}
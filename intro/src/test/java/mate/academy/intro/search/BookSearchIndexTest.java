@@ -0,0 +1,126 @@
+package mate.academy.intro.search;
+
+import mate.academy.intro.dto.book.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookSearchIndexTest {
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+    private BookSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new BookSearchIndex();
+    }
+
+    @Test
+    @DisplayName("Search by word prefix ignoring case and diacritics")
+    public void search_PrefixWithDiacritics_ReturnBook() {
+        BookDto cthulhu = getBook(1L, "Call of Cthulhu", "Howard Lovecraft", "Book about Cthulhu");
+        searchIndex.index(cthulhu, List.of("Horror"));
+
+        assertEquals(List.of(cthulhu), searchIndex.search("cthul", FIRST_PAGE));
+        assertEquals(List.of(cthulhu), searchIndex.search("LOVECRÁFT", FIRST_PAGE));
+        assertEquals(List.of(cthulhu), searchIndex.search("horr call", FIRST_PAGE));
+        assertThat(searchIndex.search("horror raven", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Title matches rank above description matches")
+    public void search_WordInTitleAndDescription_TitleMatchFirst() {
+        BookDto blackCat = getBook(1L, "The Black Cat", "Edgar Poe", "A story, not about a raven");
+        BookDto raven = getBook(2L, "The Raven", "Edgar Poe", "Feel the NeverMore");
+        searchIndex.index(blackCat, List.of());
+        searchIndex.index(raven, List.of());
+
+        assertEquals(List.of(raven, blackCat), searchIndex.search("raven", FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Reindexed and removed books are no longer found by old words")
+    public void search_AfterUpdateAndRemove_ReturnCurrentBooks() {
+        BookDto book = getBook(1L, "Guards! Guards!", "Terry Pratchett", "Night life");
+        searchIndex.index(book, List.of("Fantasy"));
+        BookDto updated = getBook(1L, "Men at Arms", "Terry Pratchett", "Night life");
+        searchIndex.index(updated, List.of("Fantasy"));
+
+        assertThat(searchIndex.search("guards", FIRST_PAGE)).isEmpty();
+        assertEquals(List.of(updated), searchIndex.search("arms", FIRST_PAGE));
+
+        searchIndex.remove(1L);
+        assertThat(searchIndex.search("pratchett", FIRST_PAGE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Word starting too many indexed words is found with the most frequent ones")
+    public void search_WordStartsTooManyWords_ReturnExactAndTopExpansions() {
+        BookDto warAndPeace = getBook(100L, "War and Peace", "Leo Tolstoy", null);
+        searchIndex.index(warAndPeace, List.of());
+        for (long id = 1; id <= 70; id++) {
+            searchIndex.index(getBook(id, "Warden" + id, "Terry Pratchett", null), List.of());
+        }
+        BookDto warhammer = getBook(71L, "Warhammer", "Dan Abnett", null);
+        BookDto warhammerSequel = getBook(72L, "Warhammer", "Dan Abnett", null);
+        searchIndex.index(warhammer, List.of());
+        searchIndex.index(warhammerSequel, List.of());
+
+        List<BookDto> actual = searchIndex.search("war", PageRequest.of(0, 100));
+
+        assertEquals(66, actual.size());
+        assertEquals(warAndPeace, actual.get(0));
+        assertThat(actual).contains(warhammer, warhammerSequel);
+        assertEquals(1, searchIndex.search("warden65", FIRST_PAGE).size());
+    }
+
+    @Test
+    @DisplayName("Renamed category is found by its new name only")
+    public void renameCategory_BooksInCategory_FoundByNewName() {
+        BookDto cthulhu = getBook(1L, "Call of Cthulhu", "Howard Lovecraft", null)
+                .setCategoriesId(Set.of(7L));
+        BookDto raven = getBook(2L, "The Raven", "Edgar Poe", null)
+                .setCategoriesId(Set.of(8L));
+        searchIndex.index(cthulhu, List.of("Horror"));
+        searchIndex.index(raven, List.of("Horror"));
+
+        searchIndex.renameCategory(7L, "Horror", "Cosmic dread");
+        assertEquals(List.of(cthulhu), searchIndex.search("cosmic", FIRST_PAGE));
+        assertEquals(List.of(raven), searchIndex.search("horror", FIRST_PAGE));
+
+        searchIndex.removeCategory(7L, "Cosmic dread");
+        assertThat(searchIndex.search("dread", FIRST_PAGE)).isEmpty();
+        assertEquals(List.of(cthulhu), searchIndex.search("cthulhu", FIRST_PAGE));
+    }
+
+    @Test
+    @DisplayName("Search results are paged")
+    public void search_SecondPage_ReturnRemainingBooks() {
+        for (long id = 1; id <= 3; id++) {
+            searchIndex.index(getBook(id, "Discworld " + id, "Terry Pratchett", null), List.of());
+        }
+
+        assertThat(searchIndex.search("discworld", PageRequest.of(0, 2))).hasSize(2);
+        List<BookDto> secondPage = searchIndex.search("discworld", PageRequest.of(1, 2));
+        assertThat(secondPage).hasSize(1);
+        assertEquals(3L, secondPage.get(0).getId());
+    }
+
+    private BookDto getBook(Long id, String title, String author, String description) {
+        return new BookDto()
+                .setId(id)
+                .setTitle(title)
+                .setAuthor(author)
+                .setIsbn("isbn-" + id)
+                .setPrice(BigDecimal.TEN)
+                .setDescription(description)
+                .setCategoriesId(Set.of());
+    }
+}
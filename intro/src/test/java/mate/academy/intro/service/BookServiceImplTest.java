@@ -1,9 +1,15 @@
 package mate.academy.intro.service;
 
+import mate.academy.intro.cache.CategorySnapshot;
+import mate.academy.intro.cache.ExpiringCache;
 import mate.academy.intro.dto.book.BookDto;
 import mate.academy.intro.dto.book.BookDtoWithoutCategoriesIds;
+import mate.academy.intro.dto.book.BookFacetedSearchDto;
+import mate.academy.intro.dto.book.BookLookupDto;
 import mate.academy.intro.dto.book.BookSearchParameters;
 import mate.academy.intro.dto.book.CreateBookRequestDto;
+import mate.academy.intro.dto.book.PriceFacetDto;
+import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.mapper.BookMapper;
 import mate.academy.intro.model.Book;
@@ -11,22 +17,24 @@ import mate.academy.intro.model.Category;
 import mate.academy.intro.repository.book.BookRepository;
 import mate.academy.intro.repository.book.BookSpecificationBuilder;
 import mate.academy.intro.repository.category.CategoryRepository;
+import mate.academy.intro.search.BookSearchIndex;
 import mate.academy.intro.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,12 +57,19 @@ class BookServiceImplTest {
     private CategoryRepository categoryRepository;
     @Mock
     private BookSpecificationBuilder builder;
+    @Mock
+    private BookSearchIndex searchIndex;
+    @Mock
+    private CategorySnapshot categorySnapshot;
+    @Spy
+    private ExpiringCache<Long, BookDto> bookCache = new ExpiringCache<>(10, 60000);
     private static final String TITLE = "Leviathan";
     private static final String AUTHOR = "Thomas Hobbes";
     private static final String ISBN = "978-1439297254";
     private static final BigDecimal PRICE = BigDecimal.valueOf(148.8);
     private static final String DESCRIPTION = "Early modern political philosophy";
     private static final String COVER_IMAGE = "Some printmaking";
+    private static final Pageable PAGEABLE = PageRequest.of(0, 20);
 
     @Test
     @DisplayName("Save book to db without categories")
@@ -89,12 +104,18 @@ class BookServiceImplTest {
         expected.setCategoriesId(Set.of(1L));
 
         when(bookMapper.toModel(requestDto)).thenReturn(book);
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findById(1L)).thenReturn(Optional.of(new CategoryDto()
+                .setId(1L)
+                .setName(category.getName())
+                .setDescription(category.getDescription())));
+        when(categoryRepository.getReferenceById(1L)).thenReturn(category);
         when(bookRepository.save(book)).thenReturn(book);
         when(bookMapper.toDto(book)).thenReturn(expected);
 
         BookDto actual = bookService.save(requestDto);
         assertEquals(expected, actual);
+        verify(categoryRepository, times(1)).addToBookCount(Set.of(1L), 1);
+        verify(categorySnapshot, times(1)).refreshAfterCommit(Set.of(1L));
     }
 
     @Test
@@ -106,7 +127,7 @@ class BookServiceImplTest {
         book.setCategories(new HashSet<>());
 
         when(bookMapper.toModel(requestDto)).thenReturn(book);
-        when(categoryRepository.findById(1L)).thenReturn(Optional.empty());
+        when(categorySnapshot.findById(1L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> bookService.save(requestDto));
@@ -130,6 +151,55 @@ class BookServiceImplTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Find book by valid id twice, second call is served from cache")
+    public void findById_CalledTwice_LoadsBookOnce() {
+        Long id = 1L;
+        Book book = getBook();
+        book.setId(id);
+        BookDto expected = getBookDto();
+
+        when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+        when(bookMapper.toDto(book)).thenReturn(expected);
+
+        assertEquals(expected, bookService.findById(id));
+        assertEquals(expected, bookService.findById(id));
+        verify(bookRepository, times(1)).findById(id);
+        assertEquals(1, bookService.getCacheStats().getHits());
+        assertEquals(1, bookService.getCacheStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Find book by id after deleting it, cached book is invalidated")
+    public void findById_AfterDelete_LoadsBookAgain() {
+        Long id = 1L;
+        Book book = getBook();
+        book.setId(id);
+        BookDto expected = getBookDto();
+
+        when(bookRepository.findById(id)).thenReturn(Optional.of(book), Optional.empty());
+        when(bookMapper.toDto(book)).thenReturn(expected);
+
+        assertEquals(expected, bookService.findById(id));
+        bookService.deleteById(id);
+        assertThrows(EntityNotFoundException.class, () -> bookService.findById(id));
+        verify(bookRepository, times(2)).findById(id);
+    }
+
+    @Test
+    @DisplayName("Delete book with categories, category book counts are decremented")
+    public void deleteById_WithCategories_DecrementBookCounts() {
+        Long id = 1L;
+
+        when(bookRepository.findCategoryIdsGroupedByBookId(List.of(id)))
+                .thenReturn(Map.of(id, Set.of(1L, 2L)));
+
+        bookService.deleteById(id);
+        verify(bookRepository, times(1)).deleteById(id);
+        verify(categoryRepository, times(1)).addToBookCount(Set.of(1L, 2L), -1);
+        verify(categorySnapshot, times(1)).refreshAfterCommit(Set.of(1L, 2L));
+    }
+
     @Test
     @DisplayName("Find book by invalid id")
     public void findById_InvalidBookId_ThrowException() {
@@ -146,36 +216,56 @@ class BookServiceImplTest {
     @DisplayName("Find all book, db is not empty")
     public void findAll_ValidPageable_ReturnAllBooks() {
         Long id = 1L;
-        Book book = getBook();
-        book.setId(id);
         BookDto bookDto = getBookDto();
         bookDto.setId(id);
 
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = List.of(book);
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.findAllAsDtos(pageable)).thenReturn(List.of(bookDto));
+        when(bookRepository.findCategoryIdsGroupedByBookId(List.of(id)))
+                .thenReturn(Map.of(id, Set.of(2L)));
 
         List<BookDto> dtoList = bookService.findAll(pageable);
         assertThat(dtoList).hasSize(1);
         assertEquals(dtoList.get(0), bookDto);
+        assertEquals(Set.of(2L), dtoList.get(0).getCategoriesId());
+        verifyNoMoreInteractions(bookMapper);
     }
 
     @Test
     @DisplayName("Find all book, db is empty")
     public void findAll_ValidPageable_ReturnEmptyList() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = Collections.emptyList();
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
 
-        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        when(bookRepository.findAllAsDtos(pageable)).thenReturn(Collections.emptyList());
 
         List<BookDto> dtoList = bookService.findAll(pageable);
         assertThat(dtoList).hasSize(0);
     }
 
+    @Test
+    @DisplayName("Find books by ids, request order is kept and missing ids are reported")
+    public void findAllById_SomeIdsMissing_ReturnFoundInRequestOrder() {
+        List<Book> books = getBookList();
+        BookDto first = new BookDto().setId(1L);
+        BookDto second = new BookDto().setId(2L);
+
+        when(bookRepository.findAllById(Set.of(1L, 2L, 99L))).thenReturn(books);
+        when(bookRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+        when(bookRepository.findCategoryIdsGroupedByBookId(List.of(1L, 2L))).thenReturn(Map.of());
+        when(bookMapper.toDto(books.get(0), Set.of())).thenReturn(first);
+        when(bookMapper.toDto(books.get(1), Set.of())).thenReturn(second);
+
+        BookLookupDto actual = bookService.findAllById(List.of(2L, 99L, 1L, 2L));
+        assertEquals(List.of(second, first), actual.getBooks());
+        assertEquals(List.of(99L), actual.getMissingIds());
+
+        BookLookupDto cached = bookService.findAllById(List.of(1L, 99L));
+        assertEquals(List.of(first), cached.getBooks());
+        assertEquals(List.of(99L), cached.getMissingIds());
+        verify(bookRepository, times(1)).findCategoryIdsGroupedByBookId(List.of(1L, 2L));
+    }
+
     @Test
     @DisplayName("Search books with valid parameters")
     public void search_ValidParams_ReturnListDto() {
@@ -186,13 +276,14 @@ class BookServiceImplTest {
         bookDto.setId(id);
 
         BookSearchParameters searchParameters = new BookSearchParameters()
-                .setAuthors(new String[]{AUTHOR})
-                .setTitles(new String[]{TITLE});
+                .setAuthor(new String[]{AUTHOR})
+                .setTitle(new String[]{TITLE});
         Specification<Book> specification = (root, query, criteriaBuilder) -> null;
 
         when(builder.build(searchParameters)).thenReturn(specification);
         when(bookRepository.findAll(specification)).thenReturn(List.of(book));
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.findCategoryIdsGroupedByBookId(List.of(id))).thenReturn(Map.of());
+        when(bookMapper.toDto(book, Set.of())).thenReturn(bookDto);
 
         List<BookDto> bookDtos = bookService.search(List.of(TITLE), List.of(AUTHOR));
         assertThat(bookDtos).hasSize(1);
@@ -203,8 +294,8 @@ class BookServiceImplTest {
     @DisplayName("Search books with invalid parameters")
     public void search_InvalidParams_ReturnEmptyListDto() {
         BookSearchParameters searchParameters = new BookSearchParameters()
-                .setAuthors(new String[]{"invalid"})
-                .setTitles(new String[]{"invalid"});
+                .setAuthor(new String[]{"invalid"})
+                .setTitle(new String[]{"invalid"});
         Specification<Book> specification = (root, query, criteriaBuilder) -> null;
 
         when(builder.build(searchParameters)).thenReturn(specification);
@@ -214,6 +305,47 @@ class BookServiceImplTest {
         assertThat(bookDtos).hasSize(0);
     }
 
+    @Test
+    @DisplayName("Full-text search is answered by the search index")
+    public void search_Query_ReturnIndexResults() {
+        Pageable pageable = PageRequest.of(0, 10);
+        List<BookDto> expected = List.of(getBookDto());
+
+        when(searchIndex.search("levia", pageable)).thenReturn(expected);
+
+        assertEquals(expected, bookService.search("levia", pageable));
+        verifyNoMoreInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Search books with facets, unknown categories are left out of the facets")
+    public void search_ParametersWithFacets_ReturnFacetCounts() {
+        BookSearchParameters parameters = new BookSearchParameters()
+                .setCategory(new String[]{"1"});
+        List<BigDecimal> bounds = List.of(BigDecimal.valueOf(50), BigDecimal.valueOf(100),
+                BigDecimal.valueOf(200), BigDecimal.valueOf(500));
+
+        when(bookRepository.findAllWithoutCount(null, PAGEABLE)).thenReturn(List.of());
+        when(bookRepository.countByCategory(null)).thenReturn(Map.of(1L, 2L, 7L, 1L));
+        when(bookRepository.countByPriceRange(null, bounds))
+                .thenReturn(List.of(1L, 0L, 2L, 0L, 0L));
+        when(categorySnapshot.findById(1L)).thenReturn(Optional.of(new CategoryDto()
+                .setId(1L)
+                .setName("Philosophy")));
+        when(categorySnapshot.findById(7L)).thenReturn(Optional.empty());
+
+        BookFacetedSearchDto actual = bookService.search(parameters, PAGEABLE);
+        assertThat(actual.getBooks()).isEmpty();
+        assertThat(actual.getCategories()).hasSize(1);
+        assertEquals("Philosophy", actual.getCategories().get(0).getName());
+        assertEquals(2L, actual.getCategories().get(0).getCount());
+        assertEquals(List.of(1L, 0L, 2L, 0L, 0L), actual.getPrices().stream()
+                .map(PriceFacetDto::getCount)
+                .toList());
+        assertEquals(BigDecimal.valueOf(500), actual.getPrices().get(4).getFrom());
+        assertEquals(null, actual.getPrices().get(4).getTo());
+    }
+
     @Test
     @DisplayName("Update book with valid id")
     public void update_ValidId_ReturnValidDto() {
@@ -224,10 +356,12 @@ class BookServiceImplTest {
         BookDto bookDto = getBookDto();
         bookDto.setId(id);
 
+        Book savedBook = getBook().setId(id).setVersion(1L);
+
         when(bookRepository.findById(id)).thenReturn(Optional.of(new Book()));
         when(bookMapper.toModel(requestDto)).thenReturn(book);
-        when(bookRepository.save(book)).thenReturn(book);
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.saveAndFlush(book)).thenReturn(savedBook);
+        when(bookMapper.toDto(savedBook)).thenReturn(bookDto);
 
         BookDto actual = bookService.update(id, requestDto);
         assertEquals(bookDto, actual);
@@ -253,22 +387,20 @@ class BookServiceImplTest {
     public void findAllByCategoryId_ValidId_ReturnListDto() {
         Long horrorCategoryId = 1L;
         Long detectiveCategoryId = 2L;
-        List<Book> bookList = getBookList();
         List<BookDtoWithoutCategoriesIds> dtoWithoutCatList = getBookDtoWithoutCatList();
 
-        when(bookRepository.getAllByCategoriesId(horrorCategoryId)).thenReturn(bookList);
-        when(bookMapper.toDtoWithoutCategories(bookList.get(0))).thenReturn(dtoWithoutCatList.get(0));
-        when(bookMapper.toDtoWithoutCategories(bookList.get(1))).thenReturn(dtoWithoutCatList.get(1));
+        when(bookRepository.findAllAsDtosByCategoryId(horrorCategoryId, PAGEABLE))
+                .thenReturn(new SliceImpl<>(dtoWithoutCatList));
 
-        List<BookDtoWithoutCategoriesIds> byHorrorId = bookService.findAllByCategoryId(horrorCategoryId);
+        List<BookDtoWithoutCategoriesIds> byHorrorId = bookService.findAllByCategoryId(horrorCategoryId, PAGEABLE);
         assertThat(byHorrorId).hasSize(2);
         assertEquals(dtoWithoutCatList.get(0), byHorrorId.get(0));
         assertEquals(dtoWithoutCatList.get(1), byHorrorId.get(1));
 
-        when(bookRepository.getAllByCategoriesId(detectiveCategoryId)).thenReturn(List.of(bookList.get(1)));
-        when(bookMapper.toDtoWithoutCategories(bookList.get(1))).thenReturn(dtoWithoutCatList.get(1));
+        when(bookRepository.findAllAsDtosByCategoryId(detectiveCategoryId, PAGEABLE))
+                .thenReturn(new SliceImpl<>(List.of(dtoWithoutCatList.get(1))));
 
-        List<BookDtoWithoutCategoriesIds> byDetectiveId = bookService.findAllByCategoryId(detectiveCategoryId);
+        List<BookDtoWithoutCategoriesIds> byDetectiveId = bookService.findAllByCategoryId(detectiveCategoryId, PAGEABLE);
         assertThat(byDetectiveId).hasSize(1);
         assertEquals(dtoWithoutCatList.get(1), byDetectiveId.get(0));
     }
@@ -276,9 +408,10 @@ class BookServiceImplTest {
     @Test
     @DisplayName("Find all books by invalid category id")
     public void findAllByCategoryId_InvalidId_ReturnEmptyList() {
-        when(bookRepository.getAllByCategoriesId(100L)).thenReturn(Collections.emptyList());
+        when(bookRepository.findAllAsDtosByCategoryId(100L, PAGEABLE))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        List<BookDtoWithoutCategoriesIds> byCategoryId = bookService.findAllByCategoryId(100L);
+        List<BookDtoWithoutCategoriesIds> byCategoryId = bookService.findAllByCategoryId(100L, PAGEABLE);
         assertThat(byCategoryId).hasSize(0);
     }
 
@@ -1,5 +1,6 @@
 package mate.academy.intro.service;
 
+import mate.academy.intro.cache.WriteBehindCartStore;
 import mate.academy.intro.dto.cart.CartItemAddRequestDto;
 import mate.academy.intro.dto.cart.CartItemDto;
 import mate.academy.intro.dto.cart.ShoppingCartResponseDto;
@@ -20,11 +21,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +50,8 @@ class CartServiceImplTest {
     private CartItemMapper cartItemMapper;
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private WriteBehindCartStore cartStore;
     private static final Long USER_ID = 15L;
     private static final Long CART_ID = 10L;
     private static final Long ITEM_ID = 9L;
@@ -65,6 +76,29 @@ class CartServiceImplTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Get cart with line prices and cart total")
+    public void getByUserId_CartWithItems_ReturnPricesAndTotal() {
+        Long otherBookId = 6L;
+        ShoppingCart shoppingCart = createShoppingCart();
+        ShoppingCartResponseDto cartDto = new ShoppingCartResponseDto()
+                .setId(CART_ID)
+                .setUserId(USER_ID)
+                .setCartItems(new HashSet<>(List.of(
+                        createCartItemDto().setPrice(BigDecimal.valueOf(10)),
+                        createCartItemDto().setId(ITEM_ID + 1).setBookId(otherBookId)
+                                .setQuantity(1).setPrice(BigDecimal.valueOf(25)))));
+
+        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
+        when(shoppingCartMapper.toDto(shoppingCart)).thenReturn(cartDto);
+
+        ShoppingCartResponseDto actual = cartService.getByUserId(USER_ID);
+        assertEquals(BigDecimal.valueOf(10 * QUANTITY + 25), actual.getTotal());
+        assertEquals(Map.of(BOOK_ID, BigDecimal.valueOf(10), otherBookId, BigDecimal.valueOf(25)),
+                actual.getCartItems().stream()
+                        .collect(Collectors.toMap(CartItemDto::getBookId, CartItemDto::getPrice)));
+    }
+
     @Test
     @DisplayName("Add book to cart, invalid user id")
     public void addBookToCart_InvalidUserId_ThrowException() {
@@ -83,33 +117,52 @@ class CartServiceImplTest {
         CartItemAddRequestDto requestDto = createAddRequestDto();
         CartItem cartItem = new CartItem()
                 .setQuantity(QUANTITY);
+        ShoppingCart shoppingCart = createShoppingCart();
         Book book = new Book()
                 .setId(BOOK_ID)
                 .setTitle(TITLE);
         CartItemDto expected = createCartItemDto();
-        ShoppingCart shoppingCart = createShoppingCart();
 
+        when(shoppingCartRepository.findIdByUserId(USER_ID)).thenReturn(Optional.of(CART_ID));
+        when(bookRepository.existsById(BOOK_ID)).thenReturn(true);
+        when(cartItemRepository.addQuantity(CART_ID, BOOK_ID, QUANTITY)).thenReturn(0);
         when(cartItemMapper.toModel(requestDto)).thenReturn(cartItem);
-        when(bookRepository.findById(requestDto.getBookId())).thenReturn(Optional.of(book));
-        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
+        when(shoppingCartRepository.getReferenceById(CART_ID)).thenReturn(shoppingCart);
+        when(bookRepository.getReferenceById(BOOK_ID)).thenReturn(book);
         when(cartItemRepository.save(cartItem)).thenReturn(cartItem.setId(ITEM_ID));
-        when(cartItemMapper.toDto(cartItem)).thenReturn(expected);
+        when(cartItemRepository.findDtoByShoppingCartIdAndBookId(CART_ID, BOOK_ID))
+                .thenReturn(Optional.of(expected));
 
         CartItemDto actual = cartService.addBookToCart(USER_ID, requestDto);
         assertEquals(expected, actual);
+        assertEquals(shoppingCart, cartItem.getShoppingCart());
+        assertEquals(book, cartItem.getBook());
+    }
+
+    @Test
+    @DisplayName("Add book that is already in the cart, quantity is added to the same line")
+    public void addBookToCart_BookAlreadyInCart_IncrementQuantity() {
+        CartItemAddRequestDto requestDto = createAddRequestDto();
+        CartItemDto expected = createCartItemDto().setQuantity(QUANTITY * 2);
+
+        when(shoppingCartRepository.findIdByUserId(USER_ID)).thenReturn(Optional.of(CART_ID));
+        when(bookRepository.existsById(BOOK_ID)).thenReturn(true);
+        when(cartItemRepository.addQuantity(CART_ID, BOOK_ID, QUANTITY)).thenReturn(1);
+        when(cartItemRepository.findDtoByShoppingCartIdAndBookId(CART_ID, BOOK_ID))
+                .thenReturn(Optional.of(expected));
+
+        CartItemDto actual = cartService.addBookToCart(USER_ID, requestDto);
+        assertEquals(expected, actual);
+        verify(cartItemRepository, never()).save(any());
     }
 
     @Test
     @DisplayName("Add book with invalid book id")
     public void addBookToCart_InvalidBookId_ThrowException() {
         CartItemAddRequestDto requestDto = createAddRequestDto();
-        CartItem cartItem = new CartItem()
-                .setQuantity(QUANTITY);
-        ShoppingCart shoppingCart = createShoppingCart();
 
-        when(cartItemMapper.toModel(requestDto)).thenReturn(cartItem);
-        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
-        when(bookRepository.findById(requestDto.getBookId())).thenReturn(Optional.empty());
+        when(shoppingCartRepository.findIdByUserId(USER_ID)).thenReturn(Optional.of(CART_ID));
+        when(bookRepository.existsById(BOOK_ID)).thenReturn(false);
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> cartService.addBookToCart(USER_ID, requestDto));
@@ -122,29 +175,40 @@ class CartServiceImplTest {
     @DisplayName("Update book quantity")
     public void updateBookQuantity_ItemIdAndQuantity_ReturnCartItemDto() {
         int quantity = 8;
-        ShoppingCart shoppingCart = createShoppingCart();
-        CartItem cartItem = new CartItem()
-                .setId(ITEM_ID)
-                .setShoppingCart(shoppingCart)
-                .setQuantity(QUANTITY);
-        CartItemDto expected = createCartItemDto();
+        CartItemDto expected = createCartItemDto().setQuantity(quantity);
 
-        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findById(ITEM_ID)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(cartItem)).thenReturn(cartItem.setQuantity(quantity));
-        when(cartItemMapper.toDto(cartItem)).thenReturn(expected);
+        when(cartItemRepository.updateQuantityByIdAndUserId(ITEM_ID, USER_ID, quantity))
+                .thenReturn(1);
+        when(cartItemRepository.findDtoByIdAndUserId(ITEM_ID, USER_ID))
+                .thenReturn(Optional.of(expected));
+
+        CartItemDto actual = cartService.updateBookQuantity(USER_ID, ITEM_ID, quantity);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Update book quantity with write-behind, change is buffered instead of saved")
+    public void updateBookQuantity_WriteBehindEnabled_BufferQuantity() {
+        int quantity = 8;
+        CartItemDto expected = createCartItemDto().setQuantity(quantity);
+
+        when(cartStore.isEnabled()).thenReturn(true);
+        when(cartStore.setQuantity(USER_ID, ITEM_ID, quantity)).thenReturn(Optional.empty());
+        when(cartItemRepository.findDtoByIdAndUserId(ITEM_ID, USER_ID))
+                .thenReturn(Optional.of(createCartItemDto()));
+        when(cartStore.put(USER_ID, expected)).thenReturn(expected);
 
         CartItemDto actual = cartService.updateBookQuantity(USER_ID, ITEM_ID, quantity);
         assertEquals(expected, actual);
+        verify(cartItemRepository, never()).updateQuantityByIdAndUserId(any(), any(), anyInt());
     }
 
     @Test
     @DisplayName("Update book quantity by invalid item id")
     public void updateBookQuantity_InvalidItemId_ThrowException() {
-        ShoppingCart shoppingCart = createShoppingCart();
-
-        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findById(ITEM_ID)).thenReturn(Optional.empty());
+        when(cartItemRepository.updateQuantityByIdAndUserId(ITEM_ID, USER_ID, QUANTITY))
+                .thenReturn(0);
+        when(cartItemRepository.existsById(ITEM_ID)).thenReturn(false);
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> cartService.updateBookQuantity(USER_ID, ITEM_ID, QUANTITY));
@@ -156,18 +220,9 @@ class CartServiceImplTest {
     @Test
     @DisplayName("Update book quantity, item doesn't belong to user's cart")
     public void updateBookQuantity_ItemDoesntBelongUser_ThrowException() {
-        ShoppingCart userCart = createShoppingCart();
-        ShoppingCart itemCart = new ShoppingCart()
-                .setId(2L)
-                .setUser(new User().setId(100L))
-                .setCartItems(new HashSet<>());
-        CartItem cartItem = new CartItem()
-                .setId(ITEM_ID)
-                .setShoppingCart(itemCart)
-                .setQuantity(1);
-
-        when(shoppingCartRepository.findShoppingCartByUserId(USER_ID)).thenReturn(Optional.of(userCart));
-        when(cartItemRepository.findById(ITEM_ID)).thenReturn(Optional.of(cartItem));
+        when(cartItemRepository.updateQuantityByIdAndUserId(ITEM_ID, USER_ID, QUANTITY))
+                .thenReturn(0);
+        when(cartItemRepository.existsById(ITEM_ID)).thenReturn(true);
 
         Exception exception = assertThrows(RuntimeException.class,
                 () -> cartService.updateBookQuantity(USER_ID, ITEM_ID, QUANTITY));
@@ -176,6 +231,19 @@ class CartServiceImplTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Delete item that doesn't belong to user's cart")
+    public void deleteItem_ItemDoesntBelongUser_ThrowException() {
+        when(cartItemRepository.deleteByIdAndUserId(ITEM_ID, USER_ID)).thenReturn(0);
+        when(cartItemRepository.existsById(ITEM_ID)).thenReturn(true);
+
+        Exception exception = assertThrows(RuntimeException.class,
+                () -> cartService.deleteItem(USER_ID, ITEM_ID));
+        String expected = "Can't find cart item with id " + ITEM_ID + " in your cart";
+        String actual = exception.getMessage();
+        assertEquals(expected, actual);
+    }
+
     private ShoppingCart createShoppingCart() {
         return new ShoppingCart()
                 .setId(CART_ID)
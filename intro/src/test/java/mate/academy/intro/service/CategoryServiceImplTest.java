@@ -1,10 +1,12 @@
 package mate.academy.intro.service;
 
+import mate.academy.intro.cache.CategorySnapshot;
 import mate.academy.intro.dto.category.CategoryDto;
 import mate.academy.intro.exception.EntityNotFoundException;
 import mate.academy.intro.mapper.CategoryMapper;
 import mate.academy.intro.model.Category;
 import mate.academy.intro.repository.category.CategoryRepository;
+import mate.academy.intro.search.BookSearchIndex;
 import mate.academy.intro.service.impl.CategoryServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,8 +14,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import java.util.Collections;
@@ -23,6 +23,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +35,10 @@ class CategoryServiceImplTest {
     private CategoryRepository categoryRepository;
     @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private CategorySnapshot categorySnapshot;
+    @Mock
+    private BookSearchIndex searchIndex;
     private static final Long ID = 1L;
     private static final String NAME = "Philosophy";
     private static final String DESCRIPTION = "Systematic study of fundamental questions";
@@ -40,16 +46,11 @@ class CategoryServiceImplTest {
     @Test
     @DisplayName("Find all categories, db is not empty")
     public void findAll_ValidPageable_ReturnListCategories() {
-        Category category = getCategory();
-        category.setId(ID);
         CategoryDto categoryDto = getCategoryDto();
         categoryDto.setId(ID);
         Pageable pageable = PageRequest.of(0, 10);
-        List<Category> categories = List.of(category);
-        Page<Category> categoryPage = new PageImpl<>(categories, pageable, categories.size());
 
-        when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
-        when(categoryMapper.toDto(category)).thenReturn(categoryDto);
+        when(categorySnapshot.findAll(pageable)).thenReturn(List.of(categoryDto));
 
         List<CategoryDto> dtoList = categoryService.findAll(pageable);
         assertThat(dtoList).hasSize(1);
@@ -60,10 +61,8 @@ class CategoryServiceImplTest {
     @DisplayName("Find all categories, db is empty")
     public void findAll_ValidPageable_ReturnEmptyList() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Category> categories = Collections.emptyList();
-        Page<Category> categoryPage = new PageImpl<>(categories, pageable, categories.size());
 
-        when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
+        when(categorySnapshot.findAll(pageable)).thenReturn(Collections.emptyList());
 
         List<CategoryDto> dtoList = categoryService.findAll(pageable);
         assertThat(dtoList).hasSize(0);
@@ -72,13 +71,10 @@ class CategoryServiceImplTest {
     @Test
     @DisplayName("Get category by valid id")
     public void getById_ValidId_ReturnDto() {
-        Category category = getCategory();
-        category.setId(ID);
         CategoryDto expected = getCategoryDto();
         expected.setId(ID);
 
-        when(categoryRepository.findById(ID)).thenReturn(Optional.of(category));
-        when(categoryMapper.toDto(category)).thenReturn(expected);
+        when(categorySnapshot.findById(ID)).thenReturn(Optional.of(expected));
 
         CategoryDto actual = categoryService.getById(ID);
         assertEquals(expected, actual);
@@ -87,7 +83,7 @@ class CategoryServiceImplTest {
     @Test
     @DisplayName("Get category by invalid id")
     public void getById_InvalidId_ThrowException() {
-        when(categoryRepository.findById(ID)).thenReturn(Optional.empty());
+        when(categorySnapshot.findById(ID)).thenReturn(Optional.empty());
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> categoryService.getById(ID));
         String expected = "Can't find category with id " + ID;
@@ -121,7 +117,7 @@ class CategoryServiceImplTest {
         CategoryDto expected = getCategoryDto();
         expected.setId(ID);
 
-        when(categoryRepository.findById(ID)).thenReturn(Optional.of(category));
+        when(categorySnapshot.findById(ID)).thenReturn(Optional.of(getCategoryDto().setId(ID)));
         when(categoryMapper.toEntity(request)).thenReturn(category);
         when(categoryRepository.save(category)).thenReturn(category.setId(ID));
         when(categoryMapper.toDto(category)).thenReturn(request.setId(ID));
@@ -133,7 +129,7 @@ class CategoryServiceImplTest {
     @Test
     @DisplayName("Update category with invalid id")
     public void update_InvalidId_ThrowException(){
-        when(categoryRepository.findById(ID)).thenReturn(Optional.empty());
+        when(categorySnapshot.findById(ID)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> categoryService.update(ID, new CategoryDto()));
@@ -142,6 +138,15 @@ class CategoryServiceImplTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Recount category books, snapshot is refreshed")
+    public void recountBooks_RecountAndRefreshSnapshot() {
+        categoryService.recountBooks();
+
+        verify(categoryRepository, times(1)).recountBooks();
+        verify(categorySnapshot, times(1)).refreshAfterCommit();
+    }
+
     private Category getCategory() {
         return new Category()
                 .setName(NAME)
@@ -1,5 +1,7 @@
 package mate.academy.intro.service;
 
+import mate.academy.intro.cache.IdempotencyKeyStore;
+import mate.academy.intro.cache.WriteBehindCartStore;
 import mate.academy.intro.dto.order.OrderDto;
 import mate.academy.intro.dto.order.OrderItemDto;
 import mate.academy.intro.dto.order.StatusRequestDto;
@@ -9,9 +11,13 @@ import mate.academy.intro.model.Order;
 import mate.academy.intro.model.OrderItem;
 import mate.academy.intro.model.Role;
 import mate.academy.intro.model.User;
+import mate.academy.intro.repository.cartitem.CartItemRepository;
 import mate.academy.intro.repository.order.OrderRepository;
 import mate.academy.intro.repository.orderitem.OrderItemRepository;
-import mate.academy.intro.repository.role.RoleRepository;
+import mate.academy.intro.repository.shoppingcart.ShoppingCartRepository;
+import mate.academy.intro.repository.shoppingcart.ShoppingCartVersion;
+import mate.academy.intro.repository.user.UserRepository;
+import mate.academy.intro.security.UserPrincipal;
 import mate.academy.intro.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,6 +37,10 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,11 +52,23 @@ class OrderServiceImplTest {
     @Mock
     private OrderItemRepository orderItemRepository;
     @Mock
-    private RoleRepository roleRepository;
-    @Mock
     private OrderMapper orderMapper;
     @Mock
     private OrderItemMapper orderItemMapper;
+    @Mock
+    private WriteBehindCartStore cartStore;
+    @Mock
+    private ShoppingCartRepository cartRepository;
+    @Mock
+    private IdempotencyKeyStore<OrderDto> orderIdempotencyKeys;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    private static final Long CART_ID = 3L;
+    private static final Long CART_VERSION = 7L;
     private static final Long ORDER_ID = 15L;
     private static final Long ITEM_ID = 10L;
     private static final Long USER_ID = 12L;
@@ -53,14 +78,65 @@ class OrderServiceImplTest {
     private static final String LAST_NAME = "Marley";
     private static final String ADDRESS = "Jamaica";
 
+    @Test
+    @DisplayName("Create order, cart was checked out concurrently")
+    public void createOrder_CartVersionChanged_ThrowException() {
+        ShoppingCartVersion shoppingCart = new ShoppingCartVersion() {
+            @Override
+            public Long getId() {
+                return CART_ID;
+            }
+
+            @Override
+            public Long getVersion() {
+                return CART_VERSION;
+            }
+        };
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
+        when(cartRepository.findVersionByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
+        when(cartRepository.incrementVersion(CART_ID, CART_VERSION)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderService.createOrder(USER_ID, ADDRESS, null));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Create order, cart has no items")
+    public void createOrder_EmptyCart_ThrowException() {
+        ShoppingCartVersion shoppingCart = new ShoppingCartVersion() {
+            @Override
+            public Long getId() {
+                return CART_ID;
+            }
+
+            @Override
+            public Long getVersion() {
+                return CART_VERSION;
+            }
+        };
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<OrderDto>>getArgument(0).doInTransaction(null));
+        when(cartRepository.findVersionByUserId(USER_ID)).thenReturn(Optional.of(shoppingCart));
+        when(cartRepository.incrementVersion(CART_ID, CART_VERSION)).thenReturn(1);
+        when(orderRepository.save(any())).thenReturn(new Order().setId(ORDER_ID));
+        when(orderItemRepository.insertFromShoppingCart(ORDER_ID, CART_ID)).thenReturn(0);
+
+        assertThrows(RuntimeException.class,
+                () -> orderService.createOrder(USER_ID, ADDRESS, null));
+        verify(cartItemRepository, never()).deleteAllByShoppingCartId(any());
+    }
+
     @Test
     @DisplayName("Find all orders for user")
     public void findAllOrders_User_ReturnOrderDtoList() {
-        User user = getUser();
         List<OrderDto> expected = new ArrayList<>();
 
-        when(orderRepository.getAllByUser(user)).thenReturn(new ArrayList<>());
-        List<OrderDto> actual = orderService.findAllOrders(user);
+        when(orderRepository.getAllByUserId(USER_ID)).thenReturn(new ArrayList<>());
+        List<OrderDto> actual = orderService.findAllOrders(USER_ID);
         assertEquals(expected, actual);
     }
 
@@ -87,11 +163,10 @@ class OrderServiceImplTest {
     @Test
     @DisplayName("Get item list from order")
     public void getItemsListFromOrder_UserAndOrderId_ReturnOrderItemDtoList() {
-        Role role = new Role().setName(Role.RoleName.ROLE_ADMIN);
-        User user = getUser().setRoles(Set.of(role));
+        UserPrincipal user = new UserPrincipal(USER_ID, EMAIL, Set.of(Role.RoleName.ROLE_ADMIN));
         Order order = new Order()
                 .setId(ORDER_ID)
-                .setUser(user);
+                .setUser(getUser());
         OrderItem item = new OrderItem()
                 .setId(1L)
                 .setOrder(order);
@@ -101,7 +176,6 @@ class OrderServiceImplTest {
                 .setId(1L);
 
         when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
-        when(roleRepository.findRoleByName(Role.RoleName.ROLE_ADMIN)).thenReturn(Optional.of(role));
         when(orderItemRepository.getAllByOrder(order)).thenReturn(orderItems);
         when(orderItemMapper.toDto(item)).thenReturn(itemDto);
 
@@ -113,11 +187,10 @@ class OrderServiceImplTest {
     @Test
     @DisplayName("Get item from order")
     public void getItemFromOrder_UserAndIdsOfOrderAndItem_ReturnOrderItemDto() {
-        Role role = new Role().setName(Role.RoleName.ROLE_ADMIN);
-        User user = getUser().setRoles(Set.of(role));
+        UserPrincipal user = new UserPrincipal(USER_ID, EMAIL, Set.of(Role.RoleName.ROLE_ADMIN));
         Order order = new Order()
                 .setId(ORDER_ID)
-                .setUser(user);
+                .setUser(getUser());
         OrderItem item = new OrderItem()
                 .setId(ITEM_ID)
                 .setOrder(order);
@@ -126,7 +199,6 @@ class OrderServiceImplTest {
                 .setId(1L);
 
         when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
-        when(roleRepository.findRoleByName(Role.RoleName.ROLE_ADMIN)).thenReturn(Optional.of(role));
         when(orderItemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
         when(orderItemMapper.toDto(item)).thenReturn(expected);
 
@@ -0,0 +1,7 @@
+INSERT INTO categories (id, name, description) VALUES (11, 'Horror', 'Something scary');
+INSERT INTO categories (id, name, description) VALUES (12, 'Detective', 'Something enigmatic');
+
+INSERT INTO books_categories (book_id, category_id) VALUES (1, 11);
+INSERT INTO books_categories (book_id, category_id) VALUES (2, 11);
+INSERT INTO books_categories (book_id, category_id) VALUES (2, 12);
+INSERT INTO books_categories (book_id, category_id) VALUES (3, 12);
@@ -0,0 +1,2 @@
+DELETE FROM books_categories WHERE category_id IN (11, 12);
+DELETE FROM categories WHERE id IN (11, 12);
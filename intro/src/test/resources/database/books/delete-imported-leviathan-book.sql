@@ -0,0 +1,2 @@
+DELETE FROM books_categories WHERE book_id IN (SELECT id FROM books WHERE isbn = '978-1439297254');
+DELETE FROM books WHERE isbn = '978-1439297254';
@@ -0,0 +1,2 @@
+INSERT INTO shopping_carts (id, user_id) VALUES (2, 5);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (4, 2, 1, 1);
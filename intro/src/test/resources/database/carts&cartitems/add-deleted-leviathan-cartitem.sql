@@ -0,0 +1,2 @@
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (10, 1, 4, 2);
+UPDATE books SET is_deleted = true WHERE id = 4;
@@ -0,0 +1,10 @@
+INSERT INTO books (id, title, author, isbn, price) WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000) SELECT 1000 + n, CONCAT('Plan book ', n), CONCAT('Plan author ', n % 100), CONCAT('plan-isbn-', n), 10.0 FROM seq;
+INSERT INTO categories (id, name) WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20) SELECT 1000 + n, CONCAT('Plan category ', n) FROM seq;
+INSERT INTO books_categories (book_id, category_id) SELECT id, 1001 + id % 20 FROM books WHERE id > 1000;
+INSERT INTO users (id, email, password, first_name, last_name) WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000) SELECT 1000 + n, CONCAT('plan_user_', n, '@mail.com'), 'password', 'Plan', 'User' FROM seq;
+INSERT INTO shopping_carts (id, user_id) SELECT id, id FROM users WHERE id > 1000;
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) SELECT id, id, id, 1 FROM shopping_carts WHERE id > 1000;
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity, is_deleted) WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 4) SELECT sc.id * 10 + seq.n, sc.id, 1001 + (sc.id - 1000 + seq.n - 1) % 1000, 1, true FROM shopping_carts sc CROSS JOIN seq WHERE sc.id > 1000;
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address) SELECT id, id, 'COMPLETED', 10.0, '2020-08-07 19:34:20', 'Kyiv' FROM users WHERE id > 1000;
+INSERT INTO order_items (id, order_id, book_id, quantity, price) SELECT id, id, id, 1, 10.0 FROM orders WHERE id > 1000;
+ANALYZE TABLE books, categories, books_categories, users, shopping_carts, cart_items, orders, order_items;
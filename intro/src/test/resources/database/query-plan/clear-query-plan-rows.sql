@@ -0,0 +1,8 @@
+DELETE FROM order_items WHERE id > 1000;
+DELETE FROM orders WHERE id > 1000;
+DELETE FROM cart_items WHERE id > 1000;
+DELETE FROM shopping_carts WHERE id > 1000;
+DELETE FROM users WHERE id > 1000;
+DELETE FROM books_categories WHERE book_id > 1000;
+DELETE FROM categories WHERE id > 1000;
+DELETE FROM books WHERE id > 1000;